@@ -1,3 +1,3 @@
 #!/bin/bash -e
 
-./gradlew clean test build
\ No newline at end of file
+./gradlew clean test build cdsArchive
\ No newline at end of file
@@ -0,0 +1,55 @@
+#!/bin/bash
+# Measures time to first request: from launching the JVM to the first successful GET /hello-world,
+# for each startup mode, and prints the median of RUNS runs in milliseconds.
+# Needs Mongo on localhost (./start_mongo_only.sh) and a build with the CDS archive: ./gradlew build cdsArchive
+set -e
+
+RUNS=${RUNS:-5}
+PORT=${PORT:-8081}
+JAR=hello-0.0.1-SNAPSHOT.jar
+
+cd "$(dirname "$0")"
+if [ ! -f build/cds/application.jsa ]; then
+    echo "build/cds/application.jsa is missing, run ./gradlew build cdsArchive first" >&2
+    exit 1
+fi
+
+time_to_first_request() {
+    local directory=$1
+    shift
+    local start
+    start=$(date +%s%N)
+    (cd "$directory" && exec java "$@" -jar "$JAR" --server.port="$PORT" > /dev/null 2>&1) &
+    local pid=$!
+    until curl -sf "http://localhost:$PORT/hello-world" > /dev/null; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "the application exited before answering" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    echo $(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+measure() {
+    local name=$1
+    shift
+    local times=()
+    local time
+    for _ in $(seq "$RUNS"); do
+        time=$(time_to_first_request "$@")
+        [ -n "$time" ] || exit 1
+        times+=("$time")
+    done
+    local median
+    median=$(printf '%s\n' "${times[@]}" | sort -n | sed -n "$(( (RUNS + 1) / 2 ))p")
+    printf '%-24s %6s ms   (%s)\n' "$name" "$median" "${times[*]}"
+}
+
+measure "plain jar" build/libs
+measure "CDS" build/cds -XX:SharedArchiveFile=application.jsa
+measure "CDS + AOT" build/cds -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true
+measure "CDS + AOT + lazy init" build/cds -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true \
+    -Dspring.profiles.active=fast-startup
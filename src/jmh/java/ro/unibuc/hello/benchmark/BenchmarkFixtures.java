@@ -0,0 +1,130 @@
+package ro.unibuc.hello.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.data.InformationRepository;
+import ro.unibuc.hello.data.InformationTitle;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.service.DataVersion;
+import ro.unibuc.hello.service.GreetingsService;
+import ro.unibuc.hello.service.InformationLookupBatcher;
+import ro.unibuc.hello.service.InformationCache;
+import ro.unibuc.hello.service.InformationSnapshot;
+import ro.unibuc.hello.service.SearchIndex;
+import ro.unibuc.hello.service.StripedIdGenerator;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Builds service instances outside of Spring, backed by an in-memory stub of {@link InformationRepository}.
+ */
+final class BenchmarkFixtures {
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<InformationEntity> entities(int count) {
+        List<InformationEntity> entities = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entities.add(new InformationEntity(Integer.toString(i), "Title " + i, "Description of entry number " + i));
+        }
+        return entities;
+    }
+
+    static List<Greeting> greetings(int count) {
+        List<Greeting> greetings = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            greetings.add(new Greeting(Integer.toString(i), "Title " + i));
+        }
+        return greetings;
+    }
+
+    /**
+     * A repository answering the queries the service uses from {@code entities}; any other call fails.
+     */
+    static InformationRepository stubRepository(List<InformationEntity> entities) {
+        Map<String, InformationEntity> byTitle = entities.stream()
+                .collect(Collectors.toMap(InformationEntity::getTitle, Function.identity(), (first, second) -> first));
+        List<InformationTitle> titles = entities.stream()
+                .map(entity -> new InformationTitle(entity.getId(), entity.getTitle()))
+                .collect(Collectors.toList());
+        return (InformationRepository) Proxy.newProxyInstance(
+                InformationRepository.class.getClassLoader(),
+                new Class<?>[]{InformationRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByTitle" -> byTitle.get((String) args[0]);
+                    case "findByTitleIn" -> ((Collection<?>) args[0]).stream()
+                            .map(byTitle::get)
+                            .filter(Objects::nonNull)
+                            .collect(Collectors.toList());
+                    case "findTitlesBy" -> titles;
+                    case "streamEntities" -> entities.stream();
+                    case "upsertAll" -> BulkWriteResult.acknowledged(0, ((List<?>) args[0]).size(), 0,
+                            ((List<?>) args[0]).size(), List.of(), List.of());
+                    case "toString" -> "StubInformationRepository";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * @param cacheSize size of the info cache, 0 to send every lookup to the repository
+     * @param snapshot    whether reads are served from a loaded {@link InformationSnapshot}
+     */
+    static GreetingsService greetingsService(InformationRepository repository, long cacheSize, boolean snapshot) {
+        GreetingsService service = new GreetingsService();
+        inject(service, "informationRepository", repository);
+        inject(service, "informationCache", new InformationCache(cacheSize, Duration.ofMinutes(10), new SimpleMeterRegistry()));
+        inject(service, "idGenerator", new StripedIdGenerator());
+        inject(service, "dataVersion", new DataVersion());
+        inject(service, "informationLookupBatcher", new InformationLookupBatcher(Duration.ZERO, 1, new SimpleMeterRegistry()));
+        inject(service, "searchIndex", new SearchIndex(true));
+        inject(service, "informationSnapshot", new InformationSnapshot(snapshot, new ObjectMapper(), new SimpleMeterRegistry()));
+        requireCollaborators(service);
+        service.loadSnapshot();
+        return service;
+    }
+
+    /**
+     * Fails fast when the service gained a collaborator these fixtures do not set, instead of in the middle of a
+     * benchmark, as the write benchmarks once did on {@code dataVersion}.
+     */
+    private static void requireCollaborators(Object target) {
+        for (Field field : target.getClass().getDeclaredFields()) {
+            if (!field.isAnnotationPresent(Autowired.class)) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                if (field.get(target) == null) {
+                    throw new IllegalStateException("BenchmarkFixtures does not set " + field.getName());
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot read " + field.getName(), e);
+            }
+        }
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName, e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package ro.unibuc.hello.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.service.GreetingsService;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service hot paths against an in-memory repository, so only our own code is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GreetingsServiceBenchmark {
+
+    @Param({"10", "1000"})
+    private int entityCount;
+
+    @Param({"1000", "0"})
+    private long cacheSize;
+
+    @Param({"false", "true"})
+    private boolean snapshot;
+
+    private GreetingsService greetingsService;
+    private List<Greeting> greetings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<InformationEntity> entities = BenchmarkFixtures.entities(entityCount);
+        greetingsService = BenchmarkFixtures.greetingsService(BenchmarkFixtures.stubRepository(entities), cacheSize, snapshot);
+        greetings = BenchmarkFixtures.greetings(entityCount);
+    }
+
+    @Benchmark
+    public Greeting hello() {
+        return greetingsService.hello("Stranger");
+    }
+
+    @Benchmark
+    public Greeting buildGreetingFromInfo() {
+        return greetingsService.buildGreetingFromInfo("Title 0");
+    }
+
+    @Benchmark
+    public List<Greeting> getAllGreetings() {
+        return greetingsService.getAllGreetings();
+    }
+
+    /**
+     * The pre-serialized /greetings body; empty, and nearly free, without the snapshot.
+     */
+    @Benchmark
+    public Optional<byte[]> getAllGreetingsJson() {
+        return greetingsService.getAllGreetingsJson();
+    }
+
+    @Benchmark
+    public List<Greeting> saveAll() {
+        return greetingsService.saveAll(greetings);
+    }
+}
@@ -0,0 +1,88 @@
+package ro.unibuc.hello.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ro.unibuc.hello.service.GreetingsService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /hello-world body production: Greeting plus Jackson (before) against the direct writer (after).
+ * Compare gc.alloc.rate.norm, the bytes allocated per request, between the two.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HelloWorldBenchmark {
+
+    private GreetingsService greetingsService;
+    private ObjectMapper objectMapper;
+    private ReusedBufferOutputStream out;
+    private int contentLength;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        greetingsService = BenchmarkFixtures.greetingsService(BenchmarkFixtures.stubRepository(List.of()), 0, false);
+        objectMapper = new ObjectMapper();
+        out = new ReusedBufferOutputStream();
+    }
+
+    @Benchmark
+    public int jackson() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, greetingsService.hello("Stranger"));
+        return out.position;
+    }
+
+    @Benchmark
+    public int directWrite() throws IOException {
+        out.reset();
+        greetingsService.writeHello("Stranger", length -> contentLength = length, out);
+        return out.position + contentLength;
+    }
+
+    /**
+     * Stands in for the servlet response buffer, which Tomcat reuses across requests.
+     */
+    static final class ReusedBufferOutputStream extends OutputStream {
+
+        private final byte[] buffer = new byte[8192];
+        private int position;
+
+        void reset() {
+            position = 0;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            System.arraycopy(b, off, buffer, position, len);
+            position += len;
+        }
+
+        @Override
+        public void close() {
+            // Jackson closes the target after writeValue; keep the buffer usable
+        }
+    }
+}
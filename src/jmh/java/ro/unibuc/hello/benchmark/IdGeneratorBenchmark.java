@@ -0,0 +1,55 @@
+package ro.unibuc.hello.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ro.unibuc.hello.service.AtomicIdGenerator;
+import ro.unibuc.hello.service.IdGenerator;
+import ro.unibuc.hello.service.SnowflakeIdGenerator;
+import ro.unibuc.hello.service.StripedIdGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the greeting id generators with every available core calling {@code nextId} on one shared instance.
+ * Run with {@code -t 1} (the JMH {@code -t} option, or change {@link Threads}) to see the uncontended cost.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(Threads.MAX)
+@State(Scope.Benchmark)
+public class IdGeneratorBenchmark {
+
+    @Param({"atomic", "striped", "snowflake"})
+    public String generator;
+
+    private IdGenerator idGenerator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        idGenerator = switch (generator) {
+            case "atomic" -> new AtomicIdGenerator();
+            case "striped" -> new StripedIdGenerator();
+            case "snowflake" -> new SnowflakeIdGenerator(1);
+            default -> throw new IllegalArgumentException(generator);
+        };
+    }
+
+    @Benchmark
+    public long nextId() {
+        return idGenerator.nextId();
+    }
+}
@@ -0,0 +1,94 @@
+package ro.unibuc.hello.benchmark;
+
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.data.InformationTitle;
+import ro.unibuc.hello.dto.Greeting;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client side cost of reading one document for GET /greetings and GET /greetings/{id}: BSON decoding plus mapping,
+ * for the whole entity against the {@code _id} + {@code title} projection, by description size.
+ * The setup prints the size of the document the server sends back in each case, the bytes read from the wire per greeting.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionDecodeBenchmark {
+
+    @Param({"100", "2000", "20000"})
+    public int descriptionLength;
+
+    private final DocumentCodec codec = new DocumentCodec();
+    private MappingMongoConverter converter;
+    private byte[] entityBytes;
+    private byte[] projectionBytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+
+        ObjectId id = new ObjectId();
+        entityBytes = encode(new Document("_id", id)
+                .append("title", "Title of the entry")
+                .append("description", "d".repeat(descriptionLength))
+                .append("_class", InformationEntity.class.getName()));
+        projectionBytes = encode(new Document("_id", id).append("title", "Title of the entry"));
+        System.out.printf("%nBSON bytes per document: entity=%d, projection=%d%n", entityBytes.length, projectionBytes.length);
+    }
+
+    @Benchmark
+    public Greeting entity() {
+        InformationEntity entity = converter.read(InformationEntity.class, decode(entityBytes));
+        return new Greeting(entity.getId(), entity.getTitle());
+    }
+
+    @Benchmark
+    public Greeting projection() {
+        InformationTitle title = converter.read(InformationTitle.class, decode(projectionBytes));
+        return new Greeting(title.id(), title.title());
+    }
+
+    private Document decode(byte[] bytes) {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(bytes))) {
+            return codec.decode(reader, DecoderContext.builder().build());
+        }
+    }
+
+    private byte[] encode(Document document) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            codec.encode(writer, document, EncoderContext.builder().build());
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,79 @@
+package ro.unibuc.hello.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.dto.SearchResults;
+import ro.unibuc.hello.service.SearchIndex;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Latency of {@code /info/search} queries against an index of a million entries. Words are drawn from a
+ * Zipf-distributed vocabulary, like natural text, so the queries cover rare terms, common terms and prefixes.
+ * Sample time mode reports the percentiles; the p0.99 line is the one to watch.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SearchIndexBenchmark {
+
+    private static final int VOCABULARY = 50_000;
+
+    @Param({"1000000"})
+    public int entries;
+
+    // a rare word, two words of middling frequency, a common pair and a prefix
+    @Param({"w3k7", "w2s w5", "w0 w1", "w10*"})
+    public String query;
+
+    private SearchIndex searchIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        double[] cumulative = new double[VOCABULARY];
+        double sum = 0;
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            sum += 1.0 / (rank + 1);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < VOCABULARY; rank++) {
+            cumulative[rank] /= sum;
+        }
+
+        searchIndex = new SearchIndex(true);
+        searchIndex.rebuild(IntStream.range(0, entries).mapToObj(i -> new InformationEntity(Integer.toString(i),
+                words(random, cumulative, 4), words(random, cumulative, 12))));
+    }
+
+    @Benchmark
+    public SearchResults search() {
+        return searchIndex.search(query, 0, 20);
+    }
+
+    private static String words(SplittableRandom random, double[] cumulative, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble());
+            text.append(" w").append(Integer.toString(rank < 0 ? -rank - 1 : rank, 36));
+        }
+        return text.toString();
+    }
+}
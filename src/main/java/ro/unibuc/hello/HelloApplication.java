@@ -1,30 +1,51 @@
 package ro.unibuc.hello;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
 import ro.unibuc.hello.data.InformationEntity;
 import ro.unibuc.hello.data.InformationRepository;
-
-import jakarta.annotation.PostConstruct;
+import ro.unibuc.hello.service.GreetingsService;
 
 @SpringBootApplication
 @EnableMongoRepositories(basePackageClasses = InformationRepository.class)
 public class HelloApplication {
 
+	private static final Logger log = LoggerFactory.getLogger(HelloApplication.class);
+
 	@Autowired
-	private InformationRepository informationRepository;
+	private GreetingsService greetingsService;
+
+	@Value("${info.seed.enabled:true}")
+	private boolean seedEnabled = true;
 
 	public static void main(String[] args) {
 		SpringApplication.run(HelloApplication.class, args);
 	}
 
-	@PostConstruct
-	public void runAfterObjectCreated() {
-		informationRepository.deleteAll();
-		informationRepository.save(new InformationEntity("Overview",
-				"This is an example of using a data storage engine running separately from our applications server"));
+	/**
+	 * Adds the example entry once the application is up, on its own thread, so neither startup nor readiness waits for Mongo.
+	 * Existing data is kept across restarts.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void seedInformation() {
+		if (!seedEnabled) {
+			return;
+		}
+		Thread.ofVirtual().name("info-seed").start(() -> {
+			try {
+				greetingsService.seedInformation(new InformationEntity("Overview",
+						"This is an example of using a data storage engine running separately from our applications server"));
+			} catch (RuntimeException e) {
+				log.warn("Could not seed the information collection", e);
+			}
+		});
 	}
 
 }
@@ -0,0 +1,76 @@
+package ro.unibuc.hello.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import ro.unibuc.hello.controller.AdmissionFilter;
+import ro.unibuc.hello.service.AdaptiveConcurrencyLimiter;
+import ro.unibuc.hello.service.ClientRateLimiter;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-client rate limiting and adaptive concurrency limiting of the greeting endpoints, switched on with
+ * {@code hello.admission.enabled=true}. Actuator endpoints are not limited.
+ */
+@Configuration
+@Profile("!reactive")
+@ConditionalOnProperty(name = "hello.admission.enabled", havingValue = "true")
+public class AdmissionConfig {
+
+    @Bean
+    public ClientRateLimiter clientRateLimiter(@Value("${hello.admission.rate:100}") double rate,
+                                               @Value("${hello.admission.burst:200}") int burst,
+                                               @Value("${hello.admission.max-clients:100000}") long maxClients) {
+        return new ClientRateLimiter(rate, burst, maxClients);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter(@Value("${hello.admission.initial-limit:50}") int initialLimit,
+                                                                 @Value("${hello.admission.min-limit:5}") int minLimit,
+                                                                 @Value("${hello.admission.max-limit:500}") int maxLimit,
+                                                                 @Value("${hello.admission.latency-threshold:250ms}") Duration latencyThreshold,
+                                                                 @Value("${hello.admission.backoff-ratio:0.9}") double backoffRatio) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThreshold, backoffRatio);
+    }
+
+    /**
+     * Runs right after the observation filter, so refused requests still show up in {@code http.server.requests} as 429.
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(ClientRateLimiter clientRateLimiter,
+                                                                   AdaptiveConcurrencyLimiter adaptiveConcurrencyLimiter,
+                                                                   @Value("${hello.admission.key-header:X-API-Key}") String keyHeader,
+                                                                   @Value("${hello.admission.api-keys:}") List<String> apiKeys,
+                                                                   @Value("${hello.admission.max-tagged-clients:100}") int maxTaggedClients,
+                                                                   MeterRegistry meterRegistry) {
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(new AdmissionFilter(
+                clientRateLimiter, adaptiveConcurrencyLimiter, keyHeader, clientsByKey(apiKeys), maxTaggedClients, meterRegistry));
+        registration.addUrlPatterns("/hello-world", "/info", "/info/*", "/greetings", "/greetings/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    /**
+     * Parses {@code name:key} entries into client names by key.
+     */
+    static Map<String, String> clientsByKey(List<String> apiKeys) {
+        Map<String, String> clientsByKey = new HashMap<>();
+        for (String entry : apiKeys) {
+            int separator = entry.indexOf(':');
+            if (separator <= 0 || separator == entry.length() - 1) {
+                throw new IllegalArgumentException("hello.admission.api-keys entries must be name:key");
+            }
+            clientsByKey.put(entry.substring(separator + 1).trim(), entry.substring(0, separator).trim());
+        }
+        return clientsByKey;
+    }
+}
@@ -0,0 +1,78 @@
+package ro.unibuc.hello.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gauges for the platform threads that carry virtual threads.
+ * A carrier that is RUNNABLE has a virtual thread mounted; an idle one waits for work in the scheduler.
+ */
+public class CarrierThreadMetrics implements MeterBinder {
+
+    private static final String carrierThreadClass = "jdk.internal.misc.CarrierThread";
+
+    // the gauges of one scrape share a sample, and several scrapers hitting at once do not walk the threads again
+    private static final long maxSampleAge = TimeUnit.SECONDS.toNanos(1);
+
+    private record Sample(long takenAt, long carriers, long busy) {
+    }
+
+    private volatile Sample sample;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jvm.threads.virtual.carriers", this, metrics -> metrics.sample().carriers())
+                .description("Carrier threads currently alive in the virtual thread scheduler")
+                .register(registry);
+        Gauge.builder("jvm.threads.virtual.carriers.busy", this, metrics -> metrics.sample().busy())
+                .description("Carrier threads currently running a virtual thread")
+                .register(registry);
+        Gauge.builder("jvm.threads.virtual.carriers.parallelism", CarrierThreadMetrics::parallelism)
+                .description("Target number of carrier threads of the virtual thread scheduler")
+                .register(registry);
+    }
+
+    private Sample sample() {
+        Sample current = sample;
+        long now = System.nanoTime();
+        if (current == null || now - current.takenAt() >= maxSampleAge) {
+            current = countCarriers(now);
+            sample = current;
+        }
+        return current;
+    }
+
+    // enumerates the platform threads without capturing their stacks, which Thread.getAllStackTraces() would do at a safepoint
+    private static Sample countCarriers(long now) {
+        ThreadGroup root = Thread.currentThread().getThreadGroup();
+        while (root.getParent() != null) {
+            root = root.getParent();
+        }
+        Thread[] threads;
+        int count;
+        do {
+            threads = new Thread[root.activeCount() * 2 + 16];
+            count = root.enumerate(threads, true);
+        } while (count == threads.length);
+
+        long carriers = 0;
+        long busy = 0;
+        for (int i = 0; i < count; i++) {
+            if (carrierThreadClass.equals(threads[i].getClass().getName())) {
+                carriers++;
+                if (threads[i].getState() == Thread.State.RUNNABLE) {
+                    busy++;
+                }
+            }
+        }
+        return new Sample(now, carriers, busy);
+    }
+
+    private static int parallelism() {
+        String configured = System.getProperty("jdk.virtualThreadScheduler.parallelism");
+        return configured != null ? Integer.parseInt(configured) : Runtime.getRuntime().availableProcessors();
+    }
+}
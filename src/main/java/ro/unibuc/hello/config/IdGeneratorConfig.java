@@ -0,0 +1,53 @@
+package ro.unibuc.hello.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ro.unibuc.hello.service.AtomicIdGenerator;
+import ro.unibuc.hello.service.IdGenerator;
+import ro.unibuc.hello.service.SnowflakeIdGenerator;
+import ro.unibuc.hello.service.StripedIdGenerator;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Picks the greeting id generator with {@code hello.id.generator}:
+ * <ul>
+ *     <li>{@code striped} (default): per-stripe blocks of ids, unique within one instance</li>
+ *     <li>{@code atomic}: one shared counter, strictly sequential ids</li>
+ *     <li>{@code snowflake}: time based ids, unique across replicas with distinct {@code hello.id.node-id}</li>
+ * </ul>
+ */
+@Configuration
+public class IdGeneratorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGeneratorConfig.class);
+
+    @Bean
+    public IdGenerator idGenerator(@Value("${hello.id.generator:striped}") String type,
+                                   @Value("${hello.id.node-id:-1}") int nodeId) {
+        return switch (type) {
+            case "atomic" -> new AtomicIdGenerator();
+            case "striped" -> new StripedIdGenerator();
+            case "snowflake" -> new SnowflakeIdGenerator(nodeId >= 0 ? nodeId : hostnameNodeId());
+            default -> throw new IllegalArgumentException("Unknown hello.id.generator: " + type);
+        };
+    }
+
+    private static int hostnameNodeId() {
+        String hostname = System.getenv("HOSTNAME");
+        if (hostname == null || hostname.isBlank()) {
+            try {
+                hostname = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException("Cannot derive a node id from the host name, set hello.id.node-id", e);
+            }
+        }
+        int nodeId = SnowflakeIdGenerator.nodeIdFromHostname(hostname);
+        log.info("Using snowflake node id {} derived from host name {}", nodeId, hostname);
+        return nodeId;
+    }
+}
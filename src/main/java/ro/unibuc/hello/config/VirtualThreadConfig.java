@@ -0,0 +1,28 @@
+package ro.unibuc.hello.config;
+
+import io.micrometer.java21.instrument.binder.jdk.VirtualThreadMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics for the virtual-thread request mode, switched on with {@code spring.threads.virtual.enabled=true}.
+ * In that mode Tomcat and the MVC async executor run each request, including its blocking Mongo calls, on a virtual thread.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    /**
+     * Pinning events (a virtual thread blocking while it cannot unmount from its carrier) and failed submissions, read from JFR.
+     */
+    @Bean
+    public VirtualThreadMetrics virtualThreadMetrics() {
+        return new VirtualThreadMetrics();
+    }
+
+    @Bean
+    public CarrierThreadMetrics carrierThreadMetrics() {
+        return new CarrierThreadMetrics();
+    }
+}
@@ -0,0 +1,133 @@
+package ro.unibuc.hello.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+import ro.unibuc.hello.service.AdaptiveConcurrencyLimiter;
+import ro.unibuc.hello.service.ClientRateLimiter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of {@link GreetingsController}: a request is first charged to its client's
+ * {@link ClientRateLimiter} bucket, then needs a slot of the {@link AdaptiveConcurrencyLimiter}. Either refusal is
+ * answered with 429 and a {@code Retry-After}, before any Mongo work is done.
+ * <p>
+ * A client is identified by its API key header when the key is one of the configured ones, otherwise by its address,
+ * so sending a new made-up key per request does not buy a fresh bucket. Configured clients are tagged by their name,
+ * never by their key, since the metrics endpoint is not authenticated.
+ * <p>
+ * Routes that are slow by design (the full {@code GET /greetings} and its stream, {@code POST /greetings/batch}, and
+ * {@code PUT}/{@code DELETE} of a greeting, which may wait for the write-behind) do not feed their latency to the
+ * concurrency limit, or they would shrink it for every other route; their 503s and 504s still count.
+ * Publishes {@code hello.admission.rejected}, tagged with {@code reason} (rate_limit or concurrency) and {@code client};
+ * only the first {@code maxTaggedClients} clients get their own tag, later ones are counted as {@code other}.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    static final String RATE_LIMIT = "rate_limit";
+    static final String CONCURRENCY = "concurrency";
+    static final String OTHER_CLIENTS = "other";
+
+    private final ClientRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final String keyHeader;
+    private final Map<String, String> clientsByKey;
+    private final int maxTaggedClients;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    public AdmissionFilter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter, String keyHeader,
+                           Map<String, String> clientsByKey, int maxTaggedClients, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.keyHeader = keyHeader;
+        this.clientsByKey = Map.copyOf(clientsByKey);
+        this.maxTaggedClients = maxTaggedClients;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("hello.admission.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Requests allowed in flight at once, as currently adapted")
+                .register(meterRegistry);
+        Gauge.builder("hello.admission.in-flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Admitted requests in flight")
+                .register(meterRegistry);
+        Gauge.builder("hello.admission.clients", rateLimiter, ClientRateLimiter::clients)
+                .description("Clients with a rate limit bucket")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String client = client(request);
+        long wait = rateLimiter.tryAcquire(client);
+        if (wait > 0) {
+            reject(response, RATE_LIMIT, client, wait, "Rate limit exceeded");
+            return;
+        }
+        long acquiredAt = concurrencyLimiter.tryAcquire();
+        if (acquiredAt < 0) {
+            reject(response, CONCURRENCY, client, TimeUnit.SECONDS.toNanos(1), "Too many requests in flight");
+            return;
+        }
+        boolean overloaded = true;
+        try {
+            filterChain.doFilter(request, response);
+            // 503 and 504 come from timeouts and full backlogs; other errors say nothing about load
+            overloaded = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    || response.getStatus() == HttpStatus.GATEWAY_TIMEOUT.value();
+        } finally {
+            // streamed responses release their slot once the handler returns, not when the last byte is written
+            concurrencyLimiter.release(acquiredAt, overloaded, !slowByDesign(request));
+        }
+    }
+
+    private static boolean slowByDesign(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return switch (request.getMethod()) {
+            case "GET" -> (path.equals("/greetings") && request.getParameter("size") == null) || path.equals("/greetings/stream");
+            case "POST" -> path.equals("/greetings/batch");
+            case "PUT", "DELETE" -> path.startsWith("/greetings/");
+            default -> false;
+        };
+    }
+
+    private String client(HttpServletRequest request) {
+        String key = request.getHeader(keyHeader);
+        String name = key == null ? null : clientsByKey.get(key);
+        return name != null ? "key:" + name : "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, String reason, String client, long waitNanos, String message)
+            throws IOException {
+        rejectedCounter(reason, client).increment();
+        long retryAfter = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(), message);
+    }
+
+    private Counter rejectedCounter(String reason, String client) {
+        String key = reason + " " + client;
+        Counter counter = rejected.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        String tag = rejected.size() < maxTaggedClients ? client : OTHER_CLIENTS;
+        return rejected.computeIfAbsent(tag.equals(client) ? key : reason + " " + OTHER_CLIENTS,
+                ignored -> Counter.builder("hello.admission.rejected")
+                        .description("Requests refused with 429 before reaching the controller")
+                        .tag("reason", reason)
+                        .tag("client", tag)
+                        .register(meterRegistry));
+    }
+}
@@ -1,59 +1,378 @@
 package ro.unibuc.hello.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ro.unibuc.hello.dto.BatchResult;
 import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.dto.GreetingPage;
+import ro.unibuc.hello.dto.InfoBatch;
+import ro.unibuc.hello.dto.SearchResults;
 import ro.unibuc.hello.exception.EntityNotFoundException;
+import ro.unibuc.hello.exception.MalformedBatchException;
+import ro.unibuc.hello.exception.WriteBacklogFullException;
+import ro.unibuc.hello.service.DataVersion;
+import ro.unibuc.hello.service.GreetingsBodyCache;
+import ro.unibuc.hello.service.GreetingsMetrics;
+import ro.unibuc.hello.service.GreetingWriteBehind;
 import ro.unibuc.hello.service.GreetingsService;
 
 import org.springframework.web.bind.annotation.*;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 @Controller
+@Profile("!reactive")
 public class GreetingsController {
 
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+
     @Autowired
     private GreetingsService greetingsService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private GreetingsMetrics greetingsMetrics;
+
+    @Autowired
+    private GreetingsBodyCache greetingsBodyCache;
+
+    // only present with greetings.write-behind.enabled=true
+    @Autowired(required = false)
+    private GreetingWriteBehind greetingWriteBehind;
+
+    @Value("${hello.direct-write.enabled:true}")
+    private boolean helloDirectWrite;
+
     @GetMapping("/hello-world")
     @ResponseBody
-    public Greeting sayHello(@RequestParam(name="name", required=false, defaultValue="Stranger") String name) {
-        return greetingsService.hello(name);
+    public Greeting sayHello(@RequestParam(name="name", required=false, defaultValue="Stranger") String name,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long start = System.nanoTime();
+        try {
+            if (helloDirectWrite && acceptsJson(request)) {
+                // same body as the Greeting below, written without going through Jackson
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                greetingsService.writeHello(name, response::setContentLength, response.getOutputStream());
+                return null;
+            }
+            return greetingsService.hello(name);
+        } finally {
+            greetingsMetrics.greeting(System.nanoTime() - start);
+        }
     }
 
+    /**
+     * Every response carries a fresh greeting id, which the weak ETag allows: the content is the same, the bytes are not.
+     */
     @GetMapping("/info")
     @ResponseBody
-    public Greeting info(@RequestParam(name="title", required=false, defaultValue="Overview") String title) throws EntityNotFoundException {
-        return greetingsService.buildGreetingFromInfo(title);
+    public Greeting info(@RequestParam(name="title", required=false, defaultValue="Overview") String title,
+                         WebRequest request, HttpServletResponse response) throws EntityNotFoundException {
+        if (request.checkNotModified(etag(dataVersion.tag(), request, response), dataVersion.lastModified().toEpochMilli())) {
+            return null;
+        }
+        return greetingsMetrics.info(() -> greetingsService.buildGreetingFromInfo(title));
     }
 
+    /**
+     * Resolves a JSON array of titles in one go; unknown titles come back under {@code missing}.
+     */
+    @PostMapping(value = "/info/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public InfoBatch infoBatch(@RequestBody List<String> titles) {
+        return greetingsService.buildGreetingsFromInfo(titles);
+    }
+
+    /**
+     * Full-text search over info titles and descriptions. Words are ANDed; {@code word*} matches by prefix.
+     */
+    @GetMapping("/info/search")
+    @ResponseBody
+    public SearchResults searchInfo(@RequestParam(name="q") String query,
+                                    @RequestParam(name="page", required=false, defaultValue="0") int page,
+                                    @RequestParam(name="size", required=false, defaultValue="20") int size) {
+        return greetingsService.searchInfo(query, page, size);
+    }
+
+    /**
+     * JSON is answered with bytes encoded once per data version, see {@link GreetingsBodyCache}, gzipped when the
+     * client accepts it. Both codings share one ETag, which is why it must be weak: a strong one would have to differ.
+     * Without the cache, the in-memory snapshot's serialized body is used when it is loaded.
+     * Other formats go through content negotiation.
+     */
     @GetMapping("/greetings")
     @ResponseBody
-    public List<Greeting> getAllGreetings() {
+    public List<Greeting> getAllGreetings(WebRequest request, HttpServletRequest servletRequest,
+                                          HttpServletResponse response) throws IOException {
+        // read once, before the data, so the cached body is never older than the tag it is stored under
+        String tag = dataVersion.tag();
+        if (request.checkNotModified(etag(tag, request, response), dataVersion.lastModified().toEpochMilli())) {
+            return null;
+        }
+        if (acceptsJson(servletRequest)) {
+            if (greetingsBodyCache.isEnabled()) {
+                GreetingsBodyCache.Body body = greetingsBodyCache.get(tag, this::encodeGreetings);
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                if (body.gzip() != null && acceptsGzip(servletRequest)) {
+                    response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+                    writeJson(response, body.gzip());
+                } else {
+                    writeJson(response, body.json());
+                }
+                return null;
+            }
+            Optional<byte[]> json = greetingsService.getAllGreetingsJson();
+            if (json.isPresent()) {
+                writeJson(response, json.get());
+                return null;
+            }
+        }
         return greetingsService.getAllGreetings();
     }
 
+    private byte[] encodeGreetings() {
+        return greetingsService.getAllGreetingsJson().orElseGet(() -> {
+            try {
+                return objectMapper.writeValueAsBytes(greetingsService.getAllGreetings());
+            } catch (JsonProcessingException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    // a Content-Encoding set here also keeps Tomcat from compressing the body a second time
+    private static void writeJson(HttpServletResponse response, byte[] body) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    @GetMapping(value = "/greetings", params = "size")
+    @ResponseBody
+    public GreetingPage getGreetingsPage(@RequestParam(name="size") int size,
+                                         @RequestParam(name="after", required=false) String after,
+                                         WebRequest request, HttpServletResponse response) {
+        if (request.checkNotModified(etag(dataVersion.tag(), request, response), dataVersion.lastModified().toEpochMilli())) {
+            return null;
+        }
+        return greetingsService.getGreetingsPage(size, after);
+    }
+
+    @GetMapping(value = "/greetings/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamGreetings() {
+        ObjectWriter writer = objectMapper.writerFor(Greeting.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+                generator.setRootValueSeparator(null);
+                greetingsService.forEachGreeting(greeting -> {
+                    try {
+                        writer.writeValue(generator, greeting);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
 
+    /**
+     * In write-behind mode the greeting is only journaled here, and the answer is 202 Accepted.
+     */
     @PostMapping("/greetings")
     @ResponseBody
-    public Greeting createGreeting(@RequestBody Greeting greeting) {
-        return greetingsService.saveGreeting(greeting);
+    public ResponseEntity<Greeting> createGreeting(@RequestBody Greeting greeting) {
+        if (greetingWriteBehind != null) {
+            return ResponseEntity.accepted().body(greetingWriteBehind.accept(greeting));
+        }
+        return ResponseEntity.ok(greetingsService.saveGreeting(greeting));
+    }
+
+    @ExceptionHandler(WriteBacklogFullException.class)
+    public ResponseEntity<String> writeBacklogFull(WriteBacklogFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(e.getMessage());
+    }
+
+    /**
+     * Accepts either a JSON array or newline-delimited JSON greetings. Items are parsed as the body is read; a malformed
+     * one ends the batch with 400, after every item before it has been written, and the body lists those.
+     */
+    @PostMapping(value = "/greetings/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @ResponseBody
+    public BatchResult createGreetings(InputStream body) throws IOException {
+        MappingIterator<Greeting> greetings;
+        try {
+            greetings = objectMapper.readerFor(Greeting.class).readValues(body);
+        } catch (JsonProcessingException e) {
+            throw new MalformedBatchException(0, e);
+        }
+        try (greetings) {
+            return greetingsService.ingestGreetings(new Iterator<>() {
+                private int read;
+
+                @Override
+                public boolean hasNext() {
+                    try {
+                        return greetings.hasNext();
+                    } catch (RuntimeException e) {
+                        throw new MalformedBatchException(read, e);
+                    }
+                }
+
+                @Override
+                public Greeting next() {
+                    try {
+                        Greeting greeting = greetings.next();
+                        read++;
+                        return greeting;
+                    } catch (RuntimeException e) {
+                        throw new MalformedBatchException(read, e);
+                    }
+                }
+            });
+        }
+    }
+
+    @ExceptionHandler(MalformedBatchException.class)
+    public ResponseEntity<BatchResult> malformedBatch(MalformedBatchException e) {
+        BatchResult result = e.getResult();
+        result.setError(e.getMessage());
+        return ResponseEntity.badRequest().body(result);
     }
 
     @PutMapping("/greetings/{id}")
     @ResponseBody
     public Greeting updateGreeting(@PathVariable String id, @RequestBody Greeting greeting) throws EntityNotFoundException {
-        return greetingsService.updateGreeting(id, greeting);
+        awaitWriteBehind(id);
+        return greetingsMetrics.countNotFound("update", () -> greetingsService.updateGreeting(id, greeting));
     }
 
     @DeleteMapping("/greetings/{id}")
     @ResponseBody
     public void deleteGreeting(@PathVariable String id) throws EntityNotFoundException {
-        greetingsService.deleteGreeting(id);
+        awaitWriteBehind(id);
+        greetingsMetrics.countNotFound("delete", () -> {
+            greetingsService.deleteGreeting(id);
+            return null;
+        });
+    }
+
+    // a journaled greeting with this id would otherwise overwrite the change when it is flushed, or replayed after a crash
+    private void awaitWriteBehind(String id) {
+        if (greetingWriteBehind != null) {
+            greetingWriteBehind.awaitWritten(id);
+        }
     }
-}
 
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // gzip;q=0 means the client refuses it
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The ETag of data version {@code tag} in the format content negotiation will pick, so that a shared cache never
+     * answers a CBOR client with JSON; {@code Vary: Accept} says so too. It is weak, because Tomcat never compresses a
+     * response with a strong ETag (gzip changes the bytes), and a weak one is all {@code If-None-Match} needs.
+     */
+    private static String etag(String tag, WebRequest request, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        return "W/\"" + tag + "-" + format(request.getHeader(HttpHeaders.ACCEPT)) + "\"";
+    }
+
+    private static String format(String accept) {
+        if (accept == null || accept.isEmpty()) {
+            return "json";
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return "json";
+        }
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        for (MediaType mediaType : mediaTypes) {
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return "json";
+            }
+            if (mediaType.isCompatibleWith(MediaType.APPLICATION_CBOR)) {
+                return "cbor";
+            }
+            if (mediaType.isCompatibleWith(SMILE)) {
+                return "smile";
+            }
+        }
+        return "json";
+    }
+
+    /**
+     * Whether JSON is what content negotiation would pick, so clients asking for CBOR or Smile first still get those.
+     */
+    private static boolean acceptsJson(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isEmpty() || accept.equals(MediaType.ALL_VALUE) || accept.equals(MediaType.APPLICATION_JSON_VALUE)) {
+            return true;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            // let content negotiation reject it
+            return false;
+        }
+        if (mediaTypes.isEmpty()) {
+            return true;
+        }
+        // most preferred first: quality, then specificity
+        MimeTypeUtils.sortBySpecificity(mediaTypes);
+        return mediaTypes.get(0).isCompatibleWith(MediaType.APPLICATION_JSON);
+    }
+}
@@ -0,0 +1,66 @@
+package ro.unibuc.hello.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.service.ReactiveGreetingsService;
+
+/**
+ * Handlers behind {@link GreetingsRouter}, mirroring the endpoints of {@link GreetingsController}.
+ */
+@Component
+@Profile("reactive")
+public class GreetingsHandler {
+
+    @Autowired
+    private ReactiveGreetingsService greetingsService;
+
+    public Mono<ServerResponse> sayHello(ServerRequest request) {
+        String name = request.queryParam("name").orElse("Stranger");
+        return ServerResponse.ok().body(greetingsService.hello(name), Greeting.class);
+    }
+
+    public Mono<ServerResponse> info(ServerRequest request) {
+        String title = request.queryParam("title").orElse("Overview");
+        return greetingsService.buildGreetingFromInfo(title)
+                .flatMap(greeting -> ServerResponse.ok().bodyValue(greeting));
+    }
+
+    /**
+     * Streams the greetings as a JSON array; the Mongo cursor is only read as fast as the client consumes.
+     */
+    public Mono<ServerResponse> getAllGreetings(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(greetingsService.getAllGreetings(), Greeting.class);
+    }
+
+    public Mono<ServerResponse> streamGreetings(ServerRequest request) {
+        return ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(greetingsService.getAllGreetings(), Greeting.class);
+    }
+
+    public Mono<ServerResponse> createGreeting(ServerRequest request) {
+        return request.bodyToMono(Greeting.class)
+                .flatMap(greetingsService::saveGreeting)
+                .flatMap(greeting -> ServerResponse.ok().bodyValue(greeting));
+    }
+
+    public Mono<ServerResponse> updateGreeting(ServerRequest request) {
+        String id = request.pathVariable("id");
+        return request.bodyToMono(Greeting.class)
+                .flatMap(greeting -> greetingsService.updateGreeting(id, greeting))
+                .flatMap(greeting -> ServerResponse.ok().bodyValue(greeting));
+    }
+
+    public Mono<ServerResponse> deleteGreeting(ServerRequest request) {
+        return greetingsService.deleteGreeting(request.pathVariable("id"))
+                .then(ServerResponse.ok().build());
+    }
+}
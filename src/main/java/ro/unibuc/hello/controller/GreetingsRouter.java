@@ -0,0 +1,29 @@
+package ro.unibuc.hello.controller;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * WebFlux routes served instead of {@link GreetingsController} when the "reactive" profile is active.
+ */
+@Configuration
+@Profile("reactive")
+public class GreetingsRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> greetingsRoutes(GreetingsHandler handler) {
+        return RouterFunctions.route()
+                .GET("/hello-world", handler::sayHello)
+                .GET("/info", handler::info)
+                .GET("/greetings/stream", handler::streamGreetings)
+                .GET("/greetings", handler::getAllGreetings)
+                .POST("/greetings", handler::createGreeting)
+                .PUT("/greetings/{id}", handler::updateGreeting)
+                .DELETE("/greetings/{id}", handler::deleteGreeting)
+                .build();
+    }
+}
@@ -1,13 +1,19 @@
 package ro.unibuc.hello.data;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
 
+@Document
 public class InformationEntity {
 
     @Id
     private String id;
 
+    @Indexed(name = "title")
     private String title;
+
+    @Indexed(name = "description")
     private String description;
 
     public InformationEntity() {}
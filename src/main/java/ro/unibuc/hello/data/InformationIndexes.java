@@ -0,0 +1,134 @@
+package ro.unibuc.hello.data;
+
+import com.mongodb.MongoCommandException;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.data.mapping.context.MappingContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Creates the indexes declared on {@link InformationEntity} and checks that the hot queries actually use them.
+ */
+class InformationIndexes {
+
+    private static final Logger log = LoggerFactory.getLogger(InformationIndexes.class);
+
+    // an index of the same name or keys already exists with other options, e.g. after flipping title-unique
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+
+    private final MongoTemplate mongoTemplate;
+
+    InformationIndexes(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Creates the declared indexes. One that already exists with other options is dropped and built again with the
+     * declared ones; if a unique title index cannot be built because titles repeat, the non-unique one is put back.
+     */
+    void ensureIndexes(boolean titleUnique) {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+                mongoTemplate.getConverter().getMappingContext();
+        IndexOperations indexOperations = mongoTemplate.indexOps(InformationEntity.class);
+        for (IndexDefinition index : new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(InformationEntity.class)) {
+            Document options = new Document(index.getIndexOptions());
+            if (titleUnique && index.getIndexKeys().containsKey("title")) {
+                options.put("unique", true);
+            }
+            ResolvedIndex resolved = new ResolvedIndex(index.getIndexKeys(), options);
+            try {
+                indexOperations.ensureIndex(resolved);
+            } catch (RuntimeException e) {
+                if (!isConflict(e)) {
+                    throw e;
+                }
+                replace(indexOperations, new ResolvedIndex(index.getIndexKeys(), index.getIndexOptions()), resolved);
+            }
+        }
+    }
+
+    private static void replace(IndexOperations indexOperations, ResolvedIndex declared, ResolvedIndex resolved) {
+        String name = resolved.getIndexOptions().getString("name");
+        log.warn("Index {} exists with other options, building it again as {}", name, resolved.getIndexOptions());
+        indexOperations.dropIndex(name);
+        try {
+            indexOperations.ensureIndex(resolved);
+        } catch (RuntimeException e) {
+            if (declared.equals(resolved)) {
+                throw e;
+            }
+            indexOperations.ensureIndex(declared);
+            throw new IllegalStateException("Cannot build index " + name + " with " + resolved.getIndexOptions()
+                    + ", kept it as " + declared.getIndexOptions(), e);
+        }
+    }
+
+    private static boolean isConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoCommandException command) {
+                return command.getErrorCode() == INDEX_OPTIONS_CONFLICT || command.getErrorCode() == INDEX_KEY_SPECS_CONFLICT;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Runs {@code explain} on every hot query and returns the ones whose winning plan scans the whole collection.
+     */
+    List<String> findCollectionScans() {
+        Map<String, Document> hotQueries = new LinkedHashMap<>();
+        hotQueries.put("findByTitle", new Document("title", "Overview"));
+        hotQueries.put("findByDescription", new Document("description", ""));
+
+        String collection = mongoTemplate.getCollectionName(InformationEntity.class);
+        List<String> collectionScans = new ArrayList<>();
+        hotQueries.forEach((name, filter) -> {
+            Document explain = mongoTemplate.getDb().runCommand(new Document("explain",
+                    new Document("find", collection).append("filter", filter))
+                    .append("verbosity", "queryPlanner"));
+            if (containsCollectionScan(explain.get("queryPlanner"))) {
+                collectionScans.add(name);
+            }
+        });
+        return collectionScans;
+    }
+
+    // sharded clusters nest one plan per shard, so look for the stage anywhere in the plan tree
+    private static boolean containsCollectionScan(Object node) {
+        if (node instanceof Document document) {
+            if ("COLLSCAN".equals(document.get("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(InformationIndexes::containsCollectionScan);
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(InformationIndexes::containsCollectionScan);
+        }
+        return false;
+    }
+
+    private record ResolvedIndex(Document indexKeys, Document indexOptions) implements IndexDefinition {
+
+        @Override
+        public Document getIndexKeys() {
+            return indexKeys;
+        }
+
+        @Override
+        public Document getIndexOptions() {
+            return indexOptions;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ro.unibuc.hello.data;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
@@ -10,9 +12,13 @@ import org.springframework.stereotype.Repository;
  * Spring Data MongoDB automatically creates a class it implementing the interface when you run the application.
  */
 @Repository
-public interface InformationRepository extends MongoRepository<InformationEntity, String> {
+public interface InformationRepository extends MongoRepository<InformationEntity, String>, InformationRepositoryCustom {
 
     InformationEntity findByTitle(String title);
+    List<InformationEntity> findByTitleIn(Collection<String> titles);
     List<InformationEntity> findByDescription(String description);
 
+    List<InformationTitle> findTitlesBy();
+    Optional<InformationTitle> findTitleById(String id);
+
 }
@@ -0,0 +1,54 @@
+package ro.unibuc.hello.data;
+
+import com.mongodb.bulk.BulkWriteResult;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Queries that cannot be expressed as derived queries, implemented in {@link InformationRepositoryCustomImpl}.
+ */
+public interface InformationRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} titles ordered by id, starting right after {@code afterId}
+     * (or from the beginning when it is null).
+     */
+    List<InformationTitle> findPageAfter(String afterId, int limit);
+
+    /**
+     * Streams the titles of the whole collection from a Mongo cursor. The stream must be closed by the caller.
+     */
+    Stream<InformationTitle> streamAll();
+
+    /**
+     * Streams every entity, with all its fields, from a Mongo cursor. The stream must be closed by the caller.
+     */
+    Stream<InformationEntity> streamEntities();
+
+    /**
+     * Replaces or inserts every entity by id in a single unordered bulk write.
+     * Entities must already carry an id. Failures are reported through
+     * {@link org.springframework.data.mongodb.BulkOperationException}, after the other writes went through.
+     */
+    BulkWriteResult upsertAll(List<InformationEntity> entities);
+
+    /**
+     * Inserts the entity unless one with the same title already exists, in a single upsert, so concurrent callers
+     * do not both insert it (as long as titles are unique, see {@code mongodb.indexes.title-unique}).
+     * Sets the new id on the entity and returns true when it was inserted.
+     */
+    boolean insertIfAbsent(InformationEntity entity);
+
+    /**
+     * Sets the title of the entity with the given id in a single findAndModify.
+     * Returns the entity as it was before the update (id, title and description only), or null when there is no such entity.
+     */
+    InformationEntity updateTitle(String id, String title);
+
+    /**
+     * Deletes the entity with the given id in a single findAndDelete.
+     * Returns the deleted entity (id, title and description only), or null when there was no such entity.
+     */
+    InformationEntity removeById(String id);
+}
@@ -0,0 +1,93 @@
+package ro.unibuc.hello.data;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonValue;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+public class InformationRepositoryCustomImpl implements InformationRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public InformationRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<InformationTitle> findPageAfter(String afterId, int limit) {
+        Query query = new Query().with(Sort.by(Sort.Direction.ASC, "_id")).limit(limit);
+        if (afterId != null && ObjectId.isValid(afterId)) {
+            // stored as an ObjectId; every string id sorts before it
+            query.addCriteria(Criteria.where("_id").gt(afterId));
+        } else if (afterId != null) {
+            // $gt only compares within one BSON type, and every ObjectId id sorts after the string ones
+            query.addCriteria(new Criteria().orOperator(
+                    Criteria.where("_id").gt(afterId),
+                    Criteria.where("_id").type(JsonSchemaObject.Type.objectIdType())));
+        }
+        // the DTO projection restricts the returned fields to the record components
+        return mongoTemplate.query(InformationEntity.class).as(InformationTitle.class).matching(query).all();
+    }
+
+    @Override
+    public Stream<InformationTitle> streamAll() {
+        return mongoTemplate.query(InformationEntity.class).as(InformationTitle.class).stream();
+    }
+
+    @Override
+    public Stream<InformationEntity> streamEntities() {
+        return mongoTemplate.stream(new Query(), InformationEntity.class);
+    }
+
+    @Override
+    public BulkWriteResult upsertAll(List<InformationEntity> entities) {
+        BulkOperations operations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, InformationEntity.class);
+        for (InformationEntity entity : entities) {
+            operations.replaceOne(Query.query(Criteria.where("_id").is(entity.getId())), entity,
+                    FindAndReplaceOptions.options().upsert());
+        }
+        return operations.execute();
+    }
+
+    @Override
+    public boolean insertIfAbsent(InformationEntity entity) {
+        UpdateResult result = mongoTemplate.upsert(Query.query(Criteria.where("title").is(entity.getTitle())),
+                new Update().setOnInsert("description", entity.getDescription()), InformationEntity.class);
+        if (result.getUpsertedId() == null) {
+            return false;
+        }
+        BsonValue id = result.getUpsertedId();
+        entity.setId(id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.asString().getValue());
+        return true;
+    }
+
+    @Override
+    public InformationEntity updateTitle(String id, String title) {
+        return mongoTemplate.findAndModify(byIdWithText(id), new Update().set("title", title),
+                FindAndModifyOptions.options().returnNew(false), InformationEntity.class);
+    }
+
+    @Override
+    public InformationEntity removeById(String id) {
+        return mongoTemplate.findAndRemove(byIdWithText(id), InformationEntity.class);
+    }
+
+    // callers only need the previous title, to evict it from the info cache, and the description, to reindex it
+    private static Query byIdWithText(String id) {
+        Query query = Query.query(Criteria.where("_id").is(id));
+        query.fields().include("title", "description");
+        return query;
+    }
+}
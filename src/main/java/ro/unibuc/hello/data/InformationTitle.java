@@ -0,0 +1,8 @@
+package ro.unibuc.hello.data;
+
+/**
+ * Projection of {@link InformationEntity} on the fields a greeting needs.
+ * Queries returning it only ask Mongo for {@code _id} and {@code title}, so descriptions never leave the server.
+ */
+public record InformationTitle(String id, String title) {
+}
@@ -0,0 +1,105 @@
+package ro.unibuc.hello.data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Driver settings applied on top of {@code mongodb.connection.url}.
+ * Anything left unset keeps the value from the connection string, or the driver default.
+ */
+@ConfigurationProperties(prefix = "mongodb.client")
+public class MongoClientProperties {
+
+    private Integer maxPoolSize;
+    private Integer minPoolSize;
+    /**
+     * How long a request may wait in the pool's queue for a free connection.
+     */
+    private Duration maxWaitTime;
+    private Duration maxConnectionIdleTime;
+    private Duration maxConnectionLifeTime;
+    private Duration connectTimeout;
+    private Duration readTimeout;
+    /**
+     * primary, primaryPreferred, secondary, secondaryPreferred or nearest.
+     */
+    private String readPreference;
+    /**
+     * Any of zlib, zstd and snappy; zstd and snappy also need their codec on the classpath.
+     */
+    private List<String> compressors;
+
+    public Integer getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    public void setMaxPoolSize(Integer maxPoolSize) {
+        this.maxPoolSize = maxPoolSize;
+    }
+
+    public Integer getMinPoolSize() {
+        return minPoolSize;
+    }
+
+    public void setMinPoolSize(Integer minPoolSize) {
+        this.minPoolSize = minPoolSize;
+    }
+
+    public Duration getMaxWaitTime() {
+        return maxWaitTime;
+    }
+
+    public void setMaxWaitTime(Duration maxWaitTime) {
+        this.maxWaitTime = maxWaitTime;
+    }
+
+    public Duration getMaxConnectionIdleTime() {
+        return maxConnectionIdleTime;
+    }
+
+    public void setMaxConnectionIdleTime(Duration maxConnectionIdleTime) {
+        this.maxConnectionIdleTime = maxConnectionIdleTime;
+    }
+
+    public Duration getMaxConnectionLifeTime() {
+        return maxConnectionLifeTime;
+    }
+
+    public void setMaxConnectionLifeTime(Duration maxConnectionLifeTime) {
+        this.maxConnectionLifeTime = maxConnectionLifeTime;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getReadTimeout() {
+        return readTimeout;
+    }
+
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public String getReadPreference() {
+        return readPreference;
+    }
+
+    public void setReadPreference(String readPreference) {
+        this.readPreference = readPreference;
+    }
+
+    public List<String> getCompressors() {
+        return compressors;
+    }
+
+    public void setCompressors(List<String> compressors) {
+        this.compressors = compressors;
+    }
+}
@@ -2,21 +2,57 @@ package ro.unibuc.hello.data;
 
 import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.data.mongodb.config.AbstractMongoClientConfiguration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@EnableConfigurationProperties(MongoClientProperties.class)
 public class MongoConfig extends AbstractMongoClientConfiguration {
 
+    private static final Logger log = LoggerFactory.getLogger(MongoConfig.class);
+
     @Value("${mongodb.connection.url}")
     private String connectionURL;
 
+    @Autowired
+    private MongoClientProperties clientProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${mongodb.indexes.title-unique:false}")
+    private boolean titleUnique;
+
+    /**
+     * What to do when a hot query would scan the whole collection: off, warn or fail.
+     */
+    @Value("${mongodb.indexes.plan-check:warn}")
+    private String planCheck;
+
     @Override
     protected String getDatabaseName() {
         return "test";
@@ -24,15 +60,92 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
 
     @Override
     public MongoClient mongoClient() {
-        MongoClientSettings mongoClientSettings = MongoClientSettings.builder()
+        return MongoClients.create(clientSettings(connectionURL, clientProperties, meterRegistry));
+    }
+
+    /**
+     * The settings of both Mongo clients, this one and the reactive one of {@link ReactiveMongoConfig}:
+     * {@code connectionURL} with {@code clientProperties} on top, and the pool and command metrics.
+     */
+    static MongoClientSettings clientSettings(String connectionURL, MongoClientProperties clientProperties, MeterRegistry meterRegistry) {
+        MongoClientSettings.Builder builder = MongoClientSettings.builder()
                 .applyConnectionString(new ConnectionString(connectionURL))
-                .build();
+                .applyToConnectionPoolSettings(pool -> {
+                    if (clientProperties.getMaxPoolSize() != null) {
+                        pool.maxSize(clientProperties.getMaxPoolSize());
+                    }
+                    if (clientProperties.getMinPoolSize() != null) {
+                        pool.minSize(clientProperties.getMinPoolSize());
+                    }
+                    if (clientProperties.getMaxWaitTime() != null) {
+                        pool.maxWaitTime(clientProperties.getMaxWaitTime().toMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    if (clientProperties.getMaxConnectionIdleTime() != null) {
+                        pool.maxConnectionIdleTime(clientProperties.getMaxConnectionIdleTime().toMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    if (clientProperties.getMaxConnectionLifeTime() != null) {
+                        pool.maxConnectionLifeTime(clientProperties.getMaxConnectionLifeTime().toMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    pool.addConnectionPoolListener(new MongoMetricsConnectionPoolListener(meterRegistry));
+                    pool.addConnectionPoolListener(new MongoPoolCheckoutListener(meterRegistry));
+                })
+                .applyToSocketSettings(socket -> {
+                    if (clientProperties.getConnectTimeout() != null) {
+                        socket.connectTimeout(clientProperties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                    }
+                    if (clientProperties.getReadTimeout() != null) {
+                        socket.readTimeout(clientProperties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                    }
+                })
+                .addCommandListener(new MongoMetricsCommandListener(meterRegistry));
 
-        return MongoClients.create(mongoClientSettings);
+        if (StringUtils.hasText(clientProperties.getReadPreference())) {
+            builder.readPreference(ReadPreference.valueOf(clientProperties.getReadPreference()));
+        }
+        if (!CollectionUtils.isEmpty(clientProperties.getCompressors())) {
+            builder.compressorList(clientProperties.getCompressors().stream()
+                    .map(MongoConfig::compressor)
+                    .toList());
+        }
+
+        return builder.build();
+    }
+
+    private static MongoCompressor compressor(String name) {
+        return switch (name.toLowerCase()) {
+            case "zlib" -> MongoCompressor.createZlibCompressor();
+            case "zstd" -> MongoCompressor.createZstdCompressor();
+            case "snappy" -> MongoCompressor.createSnappyCompressor();
+            default -> throw new IllegalArgumentException("Unknown Mongo compressor: " + name);
+        };
     }
 
     @Override
     public Collection<String> getMappingBasePackages() {
         return Collections.singleton("ro.unibuc.hello.data");
     }
+
+    /**
+     * Runs once the application has started, before the other ready listeners seed or load data and before the
+     * instance reports ready to take traffic. Refreshes of child contexts do not run it again.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void ensureIndexes(ApplicationReadyEvent event) {
+        InformationIndexes indexes = new InformationIndexes(event.getApplicationContext().getBean(MongoTemplate.class));
+        indexes.ensureIndexes(titleUnique);
+
+        if ("off".equalsIgnoreCase(planCheck)) {
+            return;
+        }
+        List<String> collectionScans = indexes.findCollectionScans();
+        if (collectionScans.isEmpty()) {
+            return;
+        }
+        String message = "Queries " + collectionScans + " run as a COLLSCAN, an index is missing";
+        if ("fail".equalsIgnoreCase(planCheck)) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
 }
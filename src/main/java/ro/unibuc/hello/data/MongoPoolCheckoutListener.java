@@ -0,0 +1,41 @@
+package ro.unibuc.hello.data;
+
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times how long each operation waited for a pooled connection, the part of a request spent queued inside the driver.
+ */
+class MongoPoolCheckoutListener implements ConnectionPoolListener {
+
+    private final Timer checkedOut;
+    private final Timer checkOutFailed;
+
+    MongoPoolCheckoutListener(MeterRegistry meterRegistry) {
+        this.checkedOut = checkoutTimer(meterRegistry, "success");
+        this.checkOutFailed = checkoutTimer(meterRegistry, "failed");
+    }
+
+    private static Timer checkoutTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("mongodb.driver.pool.checkout")
+                .description("Time spent waiting for a connection from the pool")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        checkedOut.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        checkOutFailed.record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,19 @@
+package ro.unibuc.hello.data;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link InformationRepository}, only available with the "reactive" profile.
+ */
+@Repository
+public interface ReactiveInformationRepository extends ReactiveMongoRepository<InformationEntity, String> {
+
+    Mono<InformationEntity> findByTitle(String title);
+
+    Flux<InformationTitle> findTitlesBy();
+    Mono<InformationTitle> findTitleById(String id);
+
+}
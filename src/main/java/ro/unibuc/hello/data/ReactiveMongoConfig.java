@@ -0,0 +1,44 @@
+package ro.unibuc.hello.data;
+
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * Reactive Mongo client for the "reactive" profile. It reuses the mapping set up by {@link MongoConfig},
+ * so both stacks read and write the same documents, and the same {@code mongodb.client.*} settings and driver metrics.
+ */
+@Configuration
+@Profile("reactive")
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveInformationRepository.class, reactiveMongoTemplateRef = "reactiveMongoTemplate")
+public class ReactiveMongoConfig {
+
+    @Value("${mongodb.connection.url}")
+    private String connectionURL;
+
+    @Autowired
+    private MongoClientProperties clientProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Bean
+    public MongoClient reactiveMongoClient() {
+        return MongoClients.create(MongoConfig.clientSettings(connectionURL, clientProperties, meterRegistry));
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient, MappingMongoConverter mappingMongoConverter) {
+        // same database as MongoConfig.getDatabaseName()
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient, "test"), mappingMongoConverter);
+    }
+}
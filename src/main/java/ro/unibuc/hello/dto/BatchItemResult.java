@@ -0,0 +1,56 @@
+package ro.unibuc.hello.dto;
+
+public class BatchItemResult {
+
+    public enum Status { INSERTED, UPDATED, FAILED }
+
+    private int index;
+    private String id;
+    private Status status;
+    private String error;
+
+    public BatchItemResult() {
+    }
+
+    public BatchItemResult(int index, String id, Status status, String error) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * Position of the greeting in the submitted batch.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
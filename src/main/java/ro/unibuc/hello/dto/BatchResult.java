@@ -0,0 +1,63 @@
+package ro.unibuc.hello.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchResult {
+
+    private int inserted;
+    private int updated;
+    private int failed;
+    private List<BatchItemResult> items = new ArrayList<>();
+    // set when the batch ended early on an item that could not be read
+    private String error;
+
+    public void add(BatchItemResult item) {
+        items.add(item);
+        switch (item.getStatus()) {
+            case INSERTED -> inserted++;
+            case UPDATED -> updated++;
+            case FAILED -> failed++;
+        }
+    }
+
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    public void setUpdated(int updated) {
+        this.updated = updated;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public void setItems(List<BatchItemResult> items) {
+        this.items = items;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public int getUpdated() {
+        return updated;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public List<BatchItemResult> getItems() {
+        return items;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
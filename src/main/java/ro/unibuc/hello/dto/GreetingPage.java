@@ -0,0 +1,36 @@
+package ro.unibuc.hello.dto;
+
+import java.util.List;
+
+public class GreetingPage {
+
+    private List<Greeting> items;
+    private String next;
+
+    public GreetingPage() {
+    }
+
+    public GreetingPage(List<Greeting> items, String next) {
+        this.items = items;
+        this.next = next;
+    }
+
+    public void setItems(List<Greeting> items) {
+        this.items = items;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+
+    public List<Greeting> getItems() {
+        return items;
+    }
+
+    /**
+     * Opaque continuation token for the following page, or null when this is the last one.
+     */
+    public String getNext() {
+        return next;
+    }
+}
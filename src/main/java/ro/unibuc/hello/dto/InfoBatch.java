@@ -0,0 +1,40 @@
+package ro.unibuc.hello.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class InfoBatch {
+
+    private Map<String, Greeting> found;
+    private List<String> missing;
+
+    public InfoBatch() {
+    }
+
+    public InfoBatch(Map<String, Greeting> found, List<String> missing) {
+        this.found = found;
+        this.missing = missing;
+    }
+
+    /**
+     * Greetings of the titles that exist, keyed by title, in request order.
+     */
+    public Map<String, Greeting> getFound() {
+        return found;
+    }
+
+    public void setFound(Map<String, Greeting> found) {
+        this.found = found;
+    }
+
+    /**
+     * Requested titles with no information entry.
+     */
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+}
@@ -0,0 +1,44 @@
+package ro.unibuc.hello.dto;
+
+public class SearchHit {
+
+    private String id;
+    private String title;
+    private double score;
+
+    public SearchHit() {
+    }
+
+    public SearchHit(String id, String title, double score) {
+        this.id = id;
+        this.title = title;
+        this.score = score;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * BM25 relevance of the hit; only meaningful relative to the other hits of the same query.
+     */
+    public double getScore() {
+        return score;
+    }
+}
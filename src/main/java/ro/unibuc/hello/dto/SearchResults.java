@@ -0,0 +1,57 @@
+package ro.unibuc.hello.dto;
+
+import java.util.List;
+
+public class SearchResults {
+
+    private long total;
+    private List<SearchHit> hits;
+    private boolean complete = true;
+
+    public SearchResults() {
+    }
+
+    public SearchResults(long total, List<SearchHit> hits) {
+        this(total, hits, true);
+    }
+
+    public SearchResults(long total, List<SearchHit> hits, boolean complete) {
+        this.total = total;
+        this.hits = hits;
+        this.complete = complete;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public void setHits(List<SearchHit> hits) {
+        this.hits = hits;
+    }
+
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    /**
+     * Number of documents matching the query, across all pages.
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * The requested page of hits, best first.
+     */
+    public List<SearchHit> getHits() {
+        return hits;
+    }
+
+    /**
+     * False when {@link #getTotal()} and the hits may leave matches out: the index was still loading, or a prefix
+     * matched more indexed words than are searched, and only the most frequent ones were.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+}
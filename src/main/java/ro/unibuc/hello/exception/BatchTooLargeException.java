@@ -0,0 +1,14 @@
+package ro.unibuc.hello.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class BatchTooLargeException extends RuntimeException {
+
+    private static final String batchTooLargeTemplate = "Batch has %d items, at most %d are allowed";
+
+    public BatchTooLargeException(int size, int maxSize) {
+        super(String.format(batchTooLargeTemplate, size, maxSize));
+    }
+}
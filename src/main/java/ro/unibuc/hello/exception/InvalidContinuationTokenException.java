@@ -0,0 +1,14 @@
+package ro.unibuc.hello.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidContinuationTokenException extends RuntimeException {
+
+    private static final String invalidTokenTemplate = "Continuation token: %s is not valid";
+
+    public InvalidContinuationTokenException(String token) {
+        super(String.format(invalidTokenTemplate, token));
+    }
+}
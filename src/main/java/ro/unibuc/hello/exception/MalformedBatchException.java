@@ -0,0 +1,35 @@
+package ro.unibuc.hello.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import ro.unibuc.hello.dto.BatchResult;
+
+/**
+ * A batch item could not be parsed. The items before it were still written; {@link #getResult()} reports them.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class MalformedBatchException extends RuntimeException {
+
+    private static final String malformedBatchTemplate = "Batch item %d could not be read";
+
+    private final int index;
+    private final BatchResult result;
+
+    public MalformedBatchException(int index, Throwable cause) {
+        this(index, new BatchResult(), cause);
+    }
+
+    public MalformedBatchException(int index, BatchResult result, Throwable cause) {
+        super(String.format(malformedBatchTemplate, index), cause);
+        this.index = index;
+        this.result = result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public BatchResult getResult() {
+        return result;
+    }
+}
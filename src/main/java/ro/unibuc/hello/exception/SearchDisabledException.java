@@ -0,0 +1,12 @@
+package ro.unibuc.hello.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class SearchDisabledException extends RuntimeException {
+
+    public SearchDisabledException() {
+        super("Search is disabled, set info.search.enabled=true to enable it");
+    }
+}
@@ -0,0 +1,21 @@
+package ro.unibuc.hello.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class WriteBacklogFullException extends RuntimeException {
+
+    private static final String writeBacklogFullTemplate = "%d greetings are waiting to be written, retry in %d s";
+
+    private final long retryAfterSeconds;
+
+    public WriteBacklogFullException(int backlog, long retryAfterSeconds) {
+        super(String.format(writeBacklogFullTemplate, backlog, retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,101 @@
+package ro.unibuc.hello.service;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the requests in flight, adapting the limit by additive increase, multiplicative decrease (AIMD), as TCP does
+ * with its congestion window: while requests complete within {@code latencyThreshold} and the limit is actually being
+ * used, it grows by one per completion; when a request is slower than that, or failed because of overload, it shrinks
+ * by {@code backoffRatio}, at most once per {@code latencyThreshold} so that one slow batch does not collapse it.
+ * <p>
+ * Requests beyond the limit are refused right away instead of queueing, so the latency of the admitted ones stays
+ * bounded when the application or Mongo is overloaded.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThreshold;
+    private final double backoffRatio;
+    private final LongSupplier clock;
+
+    private final AtomicInteger limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong lastDecrease;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio) {
+        this(initialLimit, minLimit, maxLimit, latencyThreshold, backoffRatio, System::nanoTime);
+    }
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Duration latencyThreshold, double backoffRatio,
+                               LongSupplier clock) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThreshold = latencyThreshold.toNanos();
+        this.backoffRatio = backoffRatio;
+        this.clock = clock;
+        this.limit = new AtomicInteger(initialLimit);
+        this.lastDecrease = new AtomicLong(clock.getAsLong() - this.latencyThreshold);
+    }
+
+    /**
+     * Admits a request if fewer than {@link #limit()} are in flight.
+     *
+     * @return the admission time to pass to {@link #release}, or -1 when the request is refused
+     */
+    public long tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit.get()) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return clock.getAsLong();
+            }
+        }
+    }
+
+    /**
+     * Ends an admitted request and adjusts the limit by how long it took.
+     *
+     * @param overloaded whether the request failed in a way that signals overload, such as a Mongo timeout
+     */
+    public void release(long acquiredAt, boolean overloaded) {
+        release(acquiredAt, overloaded, true);
+    }
+
+    /**
+     * Ends an admitted request. When {@code timed} is false its latency is not compared with the threshold, for
+     * requests that are slow by design; the limit then only shrinks if it {@code overloaded}, and does not grow.
+     */
+    public void release(long acquiredAt, boolean overloaded, boolean timed) {
+        int wasInFlight = inFlight.getAndDecrement();
+        long now = clock.getAsLong();
+        if (overloaded || (timed && now - acquiredAt > latencyThreshold)) {
+            long last = lastDecrease.get();
+            if (now - last >= latencyThreshold && lastDecrease.compareAndSet(last, now)) {
+                limit.updateAndGet(current -> Math.max(minLimit, (int) (current * backoffRatio)));
+            }
+        } else if (timed && wasInFlight * 2 >= limit.get()) {
+            // only grow while at least half of the limit is in use, or an idle service would grow it without bound
+            limit.updateAndGet(current -> Math.min(maxLimit, current + 1));
+        }
+    }
+
+    public int limit() {
+        return limit.get();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
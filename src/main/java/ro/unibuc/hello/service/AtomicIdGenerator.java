@@ -0,0 +1,16 @@
+package ro.unibuc.hello.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single shared counter: ids are strictly sequential (1, 2, 3, ...), but every thread increments the same cache line.
+ */
+public class AtomicIdGenerator implements IdGenerator {
+
+    private final AtomicLong counter = new AtomicLong();
+
+    @Override
+    public long nextId() {
+        return counter.incrementAndGet();
+    }
+}
@@ -0,0 +1,70 @@
+package ro.unibuc.hello.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client, as the generic cell rate algorithm: each client holds only the time at which its bucket
+ * would be full again (the theoretical arrival time), and a request is admitted by moving that time one emission
+ * interval forward with a compare-and-set, without locks.
+ * <p>
+ * A client may send {@code burst} requests at once, then {@code rate} requests per second. Clients are kept in a
+ * bounded cache, so a flood of distinct keys cannot exhaust memory; a client evicted from it starts again with a full bucket.
+ */
+public class ClientRateLimiter {
+
+    private final long emissionInterval;
+    private final long burstTolerance;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> clients;
+
+    public ClientRateLimiter(double rate, int burst, long maxClients) {
+        this(rate, burst, maxClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double rate, int burst, long maxClients, LongSupplier clock) {
+        if (rate <= 0 || burst < 1) {
+            throw new IllegalArgumentException("rate must be positive and burst at least 1");
+        }
+        this.emissionInterval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        this.burstTolerance = emissionInterval * (burst - 1);
+        this.clock = clock;
+        this.clients = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                // an idle client's bucket is full again after this long, so forgetting it changes nothing
+                .expireAfterAccess(Duration.ofNanos(emissionInterval + burstTolerance))
+                .build();
+    }
+
+    /**
+     * Takes one token from the client's bucket.
+     *
+     * @return 0 when the request is admitted, otherwise how many nanoseconds until the next token
+     */
+    public long tryAcquire(String client) {
+        AtomicLong arrival = clients.get(client, key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = clock.getAsLong();
+            long theoretical = arrival.get();
+            if (theoretical != Long.MIN_VALUE && theoretical - now > burstTolerance) {
+                return theoretical - now - burstTolerance;
+            }
+            long next = (theoretical == Long.MIN_VALUE || theoretical - now < 0 ? now : theoretical) + emissionInterval;
+            if (arrival.compareAndSet(theoretical, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Number of clients currently tracked, for the metrics gauge.
+     */
+    public long clients() {
+        return clients.estimatedSize();
+    }
+}
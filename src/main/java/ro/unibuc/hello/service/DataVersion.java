@@ -0,0 +1,45 @@
+package ro.unibuc.hello.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Version of the information collection as seen by this instance, bumped by every write that goes through it.
+ * Read endpoints derive ETags and Last-Modified from it, so polling clients get a 304 without touching Mongo.
+ * The epoch is random per instance, so tags from before a restart, or from another replica, never match.
+ * Writers bump after the write and cache evictions, readers take the tag before loading data:
+ * a race can then only make a response carry an older tag than its data, which costs one extra 200 and never a stale 304.
+ */
+@Component
+public class DataVersion {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicReference<Instant> lastModified = new AtomicReference<>(Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+    public void bump() {
+        // Last-Modified has a one second resolution: move it at least a second forward,
+        // so If-Modified-Since from before a write within the same second does not match
+        lastModified.updateAndGet(previous -> {
+            Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+            return now.isAfter(previous) ? now : previous.plusSeconds(1);
+        });
+        version.incrementAndGet();
+    }
+
+    /**
+     * Opaque tag of the current version, without quotes.
+     */
+    public String tag() {
+        return epoch + "-" + version.get();
+    }
+
+    public Instant lastModified() {
+        return lastModified.get();
+    }
+}
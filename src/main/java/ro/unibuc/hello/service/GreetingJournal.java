@@ -0,0 +1,260 @@
+package ro.unibuc.hello.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of accepted greetings, in memory-mapped segment files of a fixed size.
+ * <p>
+ * Each record is {@code length, crc, sequence, payload}, where the CRC covers the sequence and the payload, so a record
+ * torn by a crash is detected and ends the replay. Writes land in the page cache, which survives a crash of the process;
+ * with {@code fsync} every append is also forced to disk, which survives a crash of the machine at a much higher cost.
+ * <p>
+ * {@link #checkpoint} records the last sequence written to Mongo and deletes the segments holding only older records.
+ * After a restart, {@link #replay} returns the records that were not checkpointed, and appends go to a fresh segment.
+ */
+public class GreetingJournal implements Closeable {
+
+    static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final String SEGMENT_PREFIX = "greetings-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    // length, crc, sequence
+    private static final int HEADER_SIZE = 4 + 4 + 8;
+    private static final int NULL_LENGTH = -1;
+
+    public record Entry(long sequence, String id, String content) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean fsync;
+    private final FileChannel checkpointChannel;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private Segment current;
+    private long nextSequence;
+    private long checkpointed;
+
+    private static final class Segment {
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private long lastSequence = -1;
+
+        Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    public GreetingJournal(Path directory, int segmentSize, boolean fsync) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        Files.createDirectories(directory);
+        this.checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer stored = ByteBuffer.allocate(Long.BYTES);
+        checkpointChannel.read(stored, 0);
+        this.checkpointed = stored.position() == Long.BYTES ? stored.flip().getLong() : 0;
+        this.nextSequence = checkpointed + 1;
+    }
+
+    /**
+     * Reads every segment left by a previous run and returns the records after the last checkpoint, in order.
+     * Must be called once, before the first append.
+     */
+    public List<Entry> replay() throws IOException {
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX)).sorted().toList();
+        }
+        List<Entry> entries = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Path path : paths) {
+                Segment segment = new Segment(path, map(path, FileChannel.MapMode.READ_ONLY));
+                for (Entry entry = read(segment.buffer); entry != null; entry = read(segment.buffer)) {
+                    segment.lastSequence = entry.sequence();
+                    nextSequence = Math.max(nextSequence, entry.sequence() + 1);
+                    if (entry.sequence() > checkpointed) {
+                        entries.add(entry);
+                    }
+                }
+                segments.addLast(segment);
+            }
+            deleteCheckpointedSegments();
+        } finally {
+            lock.unlock();
+        }
+        return entries;
+    }
+
+    /**
+     * Appends one greeting and returns its sequence number.
+     *
+     * @throws IllegalArgumentException when the record does not fit in a segment
+     */
+    public long append(String id, String content) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        byte[] contentBytes = content == null ? null : content.getBytes(StandardCharsets.UTF_8);
+        int payloadSize = 4 + idBytes.length + 4 + (contentBytes == null ? 0 : contentBytes.length);
+        if (HEADER_SIZE + payloadSize > segmentSize) {
+            throw new IllegalArgumentException("Greeting of " + payloadSize + " bytes does not fit in a journal segment");
+        }
+
+        lock.lock();
+        try {
+            if (current == null || current.buffer.remaining() < HEADER_SIZE + payloadSize) {
+                roll();
+            }
+            long sequence = nextSequence++;
+            ByteBuffer buffer = current.buffer;
+            int start = buffer.position();
+            buffer.position(start + 8);
+            buffer.putLong(sequence);
+            buffer.putInt(idBytes.length).put(idBytes);
+            buffer.putInt(contentBytes == null ? NULL_LENGTH : contentBytes.length);
+            if (contentBytes != null) {
+                buffer.put(contentBytes);
+            }
+            // the length goes in last: a record without it reads as the end of the segment
+            buffer.putInt(start + 4, crc(buffer, start + 8, 8 + payloadSize));
+            buffer.putInt(start, payloadSize);
+            if (fsync) {
+                current.buffer.force(start, HEADER_SIZE + payloadSize);
+            }
+            current.lastSequence = sequence;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Marks every record up to {@code sequence} as written to Mongo, so it is not replayed.
+     */
+    public void checkpoint(long sequence) {
+        lock.lock();
+        try {
+            if (sequence <= checkpointed) {
+                return;
+            }
+            checkpointChannel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence), 0);
+            if (fsync) {
+                checkpointChannel.force(false);
+            }
+            checkpointed = sequence;
+            deleteCheckpointedSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of segment files on disk, including the one being written.
+     */
+    public int segmentCount() {
+        lock.lock();
+        try {
+            return segments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (current != null) {
+                current.buffer.force();
+            }
+            checkpointChannel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void roll() {
+        try {
+            Path path = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+            current = new Segment(path, map(path, FileChannel.MapMode.READ_WRITE));
+            segments.addLast(current);
+            deleteCheckpointedSegments();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // the segment being written stays, even when all of its records are checkpointed
+    private void deleteCheckpointedSegments() throws IOException {
+        while (!segments.isEmpty() && segments.peekFirst() != current && segments.peekFirst().lastSequence <= checkpointed) {
+            // the mapping itself is released once the buffer is garbage collected
+            Files.deleteIfExists(segments.pollFirst().path);
+        }
+    }
+
+    private MappedByteBuffer map(Path path, FileChannel.MapMode mode) throws IOException {
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            return channel.map(mode, 0, mode == FileChannel.MapMode.READ_ONLY ? channel.size() : segmentSize);
+        }
+    }
+
+    // null at the end of the segment, or at the first record that is incomplete or corrupt
+    private static Entry read(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_SIZE) {
+            return null;
+        }
+        int payloadSize = buffer.getInt(start);
+        if (payloadSize <= 0 || payloadSize > buffer.remaining() - HEADER_SIZE) {
+            return null;
+        }
+        if (buffer.getInt(start + 4) != crc(buffer, start + 8, 8 + payloadSize)) {
+            return null;
+        }
+        buffer.position(start + 8);
+        long sequence = buffer.getLong();
+        String id = readString(buffer);
+        String content = readString(buffer);
+        return new Entry(sequence, id, content);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
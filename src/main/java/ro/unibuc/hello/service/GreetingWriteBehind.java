@@ -0,0 +1,321 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ro.unibuc.hello.dto.BatchItemResult;
+import ro.unibuc.hello.dto.BatchResult;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.exception.WriteBacklogFullException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind mode for {@code POST /greetings}: a greeting is appended to the local {@link GreetingJournal} and
+ * acknowledged right away, and a background flusher writes the accepted greetings to Mongo in bulk upserts.
+ * Greetings that were journaled but not written when the process stopped are replayed on the next start.
+ * <p>
+ * At most {@code greetings.write-behind.max-backlog} greetings wait to be written; beyond that
+ * {@link #accept} fails with {@link WriteBacklogFullException}, answered with 503 and a {@code Retry-After}.
+ * A greeting is readable only once it is flushed, and is written again, as a whole, after a crash if its flush was not
+ * checkpointed. So that this replay cannot revert a later update or bring back a deleted greeting, {@link #awaitWritten}
+ * holds updates and deletes of an id until every accepted greeting with that id is written and checkpointed; this
+ * covers updates and deletes made through this replica only. Each replica has its own journal, on its own persistent
+ * volume: a journal on the container's filesystem is lost, with its unwritten greetings, when the pod is rescheduled.
+ * Switched on with {@code greetings.write-behind.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "greetings.write-behind.enabled", havingValue = "true")
+public class GreetingWriteBehind implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(GreetingWriteBehind.class);
+
+    @Autowired
+    private GreetingsService greetingsService;
+
+    @Value("${greetings.batch.chunk-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${greetings.write-behind.retry-delay:1s}")
+    private Duration retryDelay = Duration.ofSeconds(1);
+
+    @Value("${greetings.write-behind.update-wait:5s}")
+    private Duration updateWait = Duration.ofSeconds(5);
+
+    private final Path directory;
+    private final int maxBacklog;
+    private final Duration flushInterval;
+    private final int segmentSize;
+    private final boolean fsync;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter dropped;
+    private final Counter failures;
+    private final Timer flushes;
+
+    private record Pending(GreetingJournal.Entry entry, long acceptedAt) {
+    }
+
+    // journal append and enqueue happen under one lock, so the queue is in sequence order
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger backlog = new AtomicInteger();
+    // the batch being written, kept until it succeeds
+    private volatile List<Pending> flushing = List.of();
+    // ids with accepted greetings not yet checkpointed, with how many; updates and deletes of them wait on checkpointed
+    private final ConcurrentHashMap<String, Integer> unwritten = new ConcurrentHashMap<>();
+    private final ReentrantLock unwrittenLock = new ReentrantLock();
+    private final Condition checkpointed = unwrittenLock.newCondition();
+
+    private GreetingJournal journal;
+    private volatile boolean running;
+    private Thread thread;
+
+    public GreetingWriteBehind(@Value("${greetings.write-behind.directory:journal}") Path directory,
+                               @Value("${greetings.write-behind.max-backlog:10000}") int maxBacklog,
+                               @Value("${greetings.write-behind.flush-interval:50ms}") Duration flushInterval,
+                               @Value("${greetings.write-behind.segment-size:16MB}") DataSize segmentSize,
+                               @Value("${greetings.write-behind.fsync:false}") boolean fsync,
+                               MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.maxBacklog = maxBacklog;
+        this.flushInterval = flushInterval;
+        this.segmentSize = Math.toIntExact(segmentSize.toBytes());
+        this.fsync = fsync;
+        this.accepted = Counter.builder("greetings.write-behind.accepted")
+                .description("Greetings journaled and acknowledged before being written to Mongo")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("greetings.write-behind.rejected")
+                .description("Greetings refused because the write-behind backlog was full")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("greetings.write-behind.dropped")
+                .description("Journaled greetings that Mongo refused and that will not be retried")
+                .register(meterRegistry);
+        this.failures = Counter.builder("greetings.write-behind.failures")
+                .description("Bulk writes that failed and were retried")
+                .register(meterRegistry);
+        this.flushes = Timer.builder("greetings.write-behind.flush")
+                .description("Time to write one batch of journaled greetings to Mongo")
+                .register(meterRegistry);
+        Gauge.builder("greetings.write-behind.queue.depth", backlog, AtomicInteger::get)
+                .description("Greetings journaled but not yet written to Mongo")
+                .register(meterRegistry);
+        Gauge.builder("greetings.write-behind.flush.lag", this, GreetingWriteBehind::lagSeconds)
+                .description("Age of the oldest greeting not yet written to Mongo")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Journals the greeting, giving it an id if it has none, and returns it as it will be stored.
+     *
+     * @throws WriteBacklogFullException when too many greetings are waiting to be written
+     */
+    public Greeting accept(Greeting greeting) {
+        if (!running) {
+            throw new WriteBacklogFullException(backlog.get(), retryAfterSeconds());
+        }
+        if (backlog.incrementAndGet() > maxBacklog) {
+            backlog.decrementAndGet();
+            rejected.increment();
+            throw new WriteBacklogFullException(maxBacklog, retryAfterSeconds());
+        }
+        String id = greeting.getId() != null ? greeting.getId() : new ObjectId().toHexString();
+        appendLock.lock();
+        try {
+            long sequence = journal.append(id, greeting.getContent());
+            unwritten.merge(id, 1, Integer::sum);
+            queue.add(new Pending(new GreetingJournal.Entry(sequence, id, greeting.getContent()), System.nanoTime()));
+        } catch (RuntimeException e) {
+            backlog.decrementAndGet();
+            throw e;
+        } finally {
+            appendLock.unlock();
+        }
+        accepted.increment();
+        return new Greeting(id, greeting.getContent());
+    }
+
+    public int backlog() {
+        return backlog.get();
+    }
+
+    /**
+     * Waits until no greeting with {@code id} is waiting to be written or checkpointed, so an update or delete of it
+     * is not overwritten by the flush, or by its replay after a crash.
+     *
+     * @throws WriteBacklogFullException when that takes longer than {@code greetings.write-behind.update-wait}
+     */
+    public void awaitWritten(String id) {
+        if (!unwritten.containsKey(id)) {
+            return;
+        }
+        long remaining = updateWait.toNanos();
+        unwrittenLock.lock();
+        try {
+            while (unwritten.containsKey(id)) {
+                if (remaining <= 0) {
+                    throw new WriteBacklogFullException(backlog.get(), retryAfterSeconds());
+                }
+                remaining = checkpointed.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new WriteBacklogFullException(backlog.get(), retryAfterSeconds());
+        } finally {
+            unwrittenLock.unlock();
+        }
+    }
+
+    @Override
+    public void start() {
+        try {
+            journal = new GreetingJournal(directory, segmentSize, fsync);
+            List<GreetingJournal.Entry> replayed = journal.replay();
+            long now = System.nanoTime();
+            for (GreetingJournal.Entry entry : replayed) {
+                unwritten.merge(entry.id(), 1, Integer::sum);
+                queue.add(new Pending(entry, now));
+            }
+            // replayed greetings may exceed the bound; new ones are refused until they are written
+            backlog.addAndGet(replayed.size());
+            if (!replayed.isEmpty()) {
+                log.info("Replaying {} journaled greetings from {}", replayed.size(), directory);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        running = true;
+        thread = Thread.ofPlatform().name("greetings-write-behind").start(this::flushLoop);
+    }
+
+    /**
+     * Stops accepting greetings and writes the ones already accepted. Whatever cannot be written stays in the journal.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join();
+            journal.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Could not close the greetings journal", e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // started before and stopped after the web server, so no request arrives once the flusher is gone
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void flushLoop() {
+        while (running || !queue.isEmpty() || !flushing.isEmpty()) {
+            try {
+                if (flushing.isEmpty()) {
+                    flushing = nextBatch();
+                }
+                if (!flushing.isEmpty()) {
+                    flushes.record(() -> flush(flushing));
+                    backlog.addAndGet(-flushing.size());
+                    flushing = List.of();
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Writing {} journaled greetings failed, retrying in {}", flushing.size(), retryDelay, e);
+                if (!running) {
+                    // shutting down: the journal replays them on the next start
+                    return;
+                }
+                sleep(retryDelay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private List<Pending> nextBatch() throws InterruptedException {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        Pending first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        queue.drainTo(batch, batchSize - 1);
+        return batch;
+    }
+
+    private void flush(List<Pending> batch) {
+        BatchResult result = greetingsService.ingestGreetings(batch.stream()
+                .map(pending -> new Greeting(pending.entry().id(), pending.entry().content()))
+                .iterator());
+        for (BatchItemResult item : result.getItems()) {
+            if (item.getStatus() == BatchItemResult.Status.FAILED) {
+                dropped.increment();
+                log.warn("Dropping journaled greeting {}: {}", item.getId(), item.getError());
+            }
+        }
+        journal.checkpoint(batch.get(batch.size() - 1).entry().sequence());
+        unwrittenLock.lock();
+        try {
+            for (Pending pending : batch) {
+                unwritten.computeIfPresent(pending.entry().id(), (id, count) -> count == 1 ? null : count - 1);
+            }
+            checkpointed.signalAll();
+        } finally {
+            unwrittenLock.unlock();
+        }
+    }
+
+    private double lagSeconds() {
+        List<Pending> current = flushing;
+        Pending oldest = current.isEmpty() ? queue.peek() : current.get(0);
+        return oldest == null ? 0 : (System.nanoTime() - oldest.acceptedAt()) / 1e9;
+    }
+
+    // how long the current backlog should take to drain, judging by its oldest entry, at least a second
+    private long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(lagSeconds()));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
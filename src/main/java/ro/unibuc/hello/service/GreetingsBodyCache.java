@@ -0,0 +1,109 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The encoded {@code GET /greetings} JSON body of the latest {@link DataVersion}, kept so that requests between two
+ * writes are answered by copying bytes instead of mapping entities and running Jackson over the whole list again.
+ * Bodies of at least {@code server.compression.min-response-size} are also kept gzipped, for clients accepting it.
+ * <p>
+ * Callers pass the version tag they read before loading the data, as {@link DataVersion} requires, so a body is never
+ * older than its tag. Only one body is kept; concurrent misses for the same tag share one load.
+ * <p>
+ * The tag only moves on writes made through this instance (and, with the change stream listener, on the others'), so
+ * a body is also reloaded once it is older than {@code maxAge}, which bounds how long writes made directly in Mongo
+ * go unseen. Switched on with {@code greetings.body-cache.enabled=true}.
+ */
+@Component
+public class GreetingsBodyCache {
+
+    public record Body(String tag, byte[] json, byte[] gzip, long loadedAt) {
+    }
+
+    private final boolean enabled;
+    private final boolean gzip;
+    private final long minGzipSize;
+    private final long maxAge;
+    private final LongSupplier clock;
+    private final SingleFlight<String, Body> loads;
+    private final Counter hits;
+    private final Counter misses;
+
+    private volatile Body current;
+
+    @Autowired
+    public GreetingsBodyCache(@Value("${greetings.body-cache.enabled:false}") boolean enabled,
+                              @Value("${greetings.body-cache.gzip:true}") boolean gzip,
+                              @Value("${server.compression.min-response-size:2KB}") DataSize minGzipSize,
+                              @Value("${greetings.body-cache.max-age:5s}") Duration maxAge,
+                              MeterRegistry meterRegistry) {
+        this(enabled, gzip, minGzipSize, maxAge, meterRegistry, System::nanoTime);
+    }
+
+    GreetingsBodyCache(boolean enabled, boolean gzip, DataSize minGzipSize, Duration maxAge,
+                       MeterRegistry meterRegistry, LongSupplier clock) {
+        this.enabled = enabled;
+        this.gzip = gzip;
+        this.minGzipSize = minGzipSize.toBytes();
+        this.maxAge = maxAge.toNanos();
+        this.clock = clock;
+        this.loads = new SingleFlight<>("greetings.body", meterRegistry);
+        this.hits = cacheCounter("hit", meterRegistry);
+        this.misses = cacheCounter("miss", meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the body cached for {@code tag}, or encodes one with {@code serializer} and caches it in place of the previous one.
+     * A body older than the maximum age is encoded again, even when the tag has not changed; a zero maximum age keeps it.
+     */
+    public Body get(String tag, Supplier<byte[]> serializer) {
+        Body body = current;
+        if (body != null && body.tag().equals(tag) && (maxAge == 0 || clock.getAsLong() - body.loadedAt() < maxAge)) {
+            hits.increment();
+            return body;
+        }
+        misses.increment();
+        return loads.execute(tag, key -> {
+            long loadedAt = clock.getAsLong();
+            byte[] json = serializer.get();
+            Body loaded = new Body(key, json, gzip && json.length >= minGzipSize ? gzip(json) : null, loadedAt);
+            // a slow load of an older tag may replace a newer body; the next request for the newer tag reloads it
+            current = loaded;
+            return loaded;
+        });
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static Counter cacheCounter(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("greetings.body.cache")
+                .description("GET /greetings JSON bodies served from the encoded body cache, or encoded again")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,97 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.exception.EntityNotFoundException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Business level metrics of the greeting endpoints, next to the generic {@code http.server.requests} timers:
+ * <ul>
+ *     <li>{@code hello.greeting.count} / {@code hello.greeting.time}: greetings served by /hello-world</li>
+ *     <li>{@code hello.info.count} / {@code hello.info.time}: /info lookups, tagged with {@code outcome} found or not_found</li>
+ *     <li>{@code hello.entity.not.found}: lookups and writes of greetings that do not exist, tagged with {@code operation}</li>
+ * </ul>
+ * Histogram buckets and SLOs for the timers are configured with {@code management.metrics.distribution.*.hello}.
+ */
+@Component
+public class GreetingsMetrics {
+
+    private final MeterRegistry meterRegistry;
+    private final Counter greetingCount;
+    private final Timer greetingTime;
+    private final Counter infoFound;
+    private final Counter infoNotFound;
+    private final Timer infoFoundTime;
+    private final Timer infoNotFoundTime;
+
+    public GreetingsMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.greetingCount = Counter.builder("hello.greeting.count")
+                .description("Greetings served by /hello-world")
+                .register(meterRegistry);
+        this.greetingTime = Timer.builder("hello.greeting.time")
+                .description("Time to build and write a /hello-world greeting")
+                .register(meterRegistry);
+        this.infoFound = infoCount("found");
+        this.infoNotFound = infoCount("not_found");
+        this.infoFoundTime = infoTime("found");
+        this.infoNotFoundTime = infoTime("not_found");
+    }
+
+    public void greeting(long durationNanos) {
+        greetingCount.increment();
+        greetingTime.record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs an /info lookup, counting and timing it by outcome.
+     */
+    public <T> T info(Supplier<T> call) {
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            infoFound.increment();
+            infoFoundTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (EntityNotFoundException e) {
+            infoNotFound.increment();
+            infoNotFoundTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /**
+     * Runs {@code call}, counting an {@link EntityNotFoundException} under the given operation before rethrowing it.
+     */
+    public <T> T countNotFound(String operation, Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (EntityNotFoundException e) {
+            Counter.builder("hello.entity.not.found")
+                    .description("Greeting lookups and writes for an id or title that does not exist")
+                    .tag("operation", operation)
+                    .register(meterRegistry)
+                    .increment();
+            throw e;
+        }
+    }
+
+    private Counter infoCount(String outcome) {
+        return Counter.builder("hello.info.count")
+                .description("Information lookups through /info")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private Timer infoTime(String outcome) {
+        return Timer.builder("hello.info.time")
+                .description("Time to resolve an /info lookup")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
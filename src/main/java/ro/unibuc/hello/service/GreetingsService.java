@@ -1,49 +1,277 @@
 package ro.unibuc.hello.service;
 
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
 import org.springframework.stereotype.Component;
 import ro.unibuc.hello.data.InformationEntity;
 import ro.unibuc.hello.data.InformationRepository;
+import ro.unibuc.hello.data.InformationTitle;
+import ro.unibuc.hello.dto.BatchItemResult;
+import ro.unibuc.hello.dto.BatchResult;
 import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.dto.GreetingPage;
+import ro.unibuc.hello.dto.InfoBatch;
+import ro.unibuc.hello.dto.SearchResults;
+import ro.unibuc.hello.exception.BatchTooLargeException;
 import ro.unibuc.hello.exception.EntityNotFoundException;
+import ro.unibuc.hello.exception.InvalidContinuationTokenException;
+import ro.unibuc.hello.exception.MalformedBatchException;
+import ro.unibuc.hello.exception.SearchDisabledException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
 import java.util.stream.Collectors;
-import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class GreetingsService {
 
+    private static final Logger log = LoggerFactory.getLogger(GreetingsService.class);
+
     @Autowired
     private InformationRepository informationRepository;
 
-    private final AtomicLong counter = new AtomicLong();
+    @Autowired
+    private InformationCache informationCache;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private InformationLookupBatcher informationLookupBatcher;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private InformationSnapshot informationSnapshot;
+
+    @Value("${greetings.page.max-size:1000}")
+    private int maxPageSize = 1000;
+
+    @Value("${greetings.batch.chunk-size:1000}")
+    private int batchChunkSize = 1000;
+
+    @Value("${info.batch.max-titles:100}")
+    private int maxBatchTitles = 100;
+
+    @Value("${info.search.max-page-size:100}")
+    private int maxSearchPageSize = 100;
+
     private static final String helloTemplate = "Hello, %s!";
     private static final String informationTemplate = "%s : %s!";
+    private static final HelloJsonWriter helloJsonWriter = new HelloJsonWriter(helloTemplate);
 
     public Greeting hello(String name) {
-        return new Greeting(Long.toString(counter.incrementAndGet()), String.format(helloTemplate, name));
+        return new Greeting(Long.toString(idGenerator.nextId()), String.format(helloTemplate, name));
+    }
+
+    /**
+     * Writes the same greeting as {@link #hello} as JSON to {@code out}, without allocating intermediate objects.
+     * The caller gets the exact body length up front through {@code contentLength}.
+     */
+    public void writeHello(String name, IntConsumer contentLength, OutputStream out) throws IOException {
+        long id = idGenerator.nextId();
+        contentLength.accept(helloJsonWriter.length(id, name));
+        helloJsonWriter.write(id, name, out);
     }
 
     public Greeting buildGreetingFromInfo(String title) throws EntityNotFoundException {
-        InformationEntity entity = informationRepository.findByTitle(title);
-        if (entity == null) {
-            throw new EntityNotFoundException(title);
+        if (informationSnapshot.isReady()) {
+            return informationSnapshot.findByTitle(title)
+                    .map(this::infoGreeting)
+                    .orElseThrow(() -> new EntityNotFoundException(title));
+        }
+        Function<String, InformationEntity> loader = informationLookupBatcher.isEnabled()
+                ? informationLookupBatcher::findByTitle
+                : informationRepository::findByTitle;
+        InformationEntity entity = informationCache.get(title, loader)
+                .orElseThrow(() -> new EntityNotFoundException(title));
+        return infoGreeting(entity);
+    }
+
+    /**
+     * Resolves many titles at once: cached ones from the info cache, the rest with a single query.
+     * Unknown titles are listed as missing instead of failing the whole batch.
+     */
+    public InfoBatch buildGreetingsFromInfo(Collection<String> titles) {
+        Set<String> distinct = new LinkedHashSet<>(titles);
+        distinct.remove(null);
+        if (distinct.size() > maxBatchTitles) {
+            throw new BatchTooLargeException(distinct.size(), maxBatchTitles);
+        }
+        Map<String, Greeting> found = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        if (informationSnapshot.isReady()) {
+            for (String title : distinct) {
+                Optional<InformationSnapshot.Entry> entry = informationSnapshot.findByTitle(title);
+                if (entry.isPresent()) {
+                    found.put(title, infoGreeting(entry.get()));
+                } else {
+                    missing.add(title);
+                }
+            }
+            return new InfoBatch(found, missing);
+        }
+        informationCache.getAll(distinct, informationRepository::findByTitleIn).forEach((title, entity) -> {
+            if (entity.isPresent()) {
+                found.put(title, infoGreeting(entity.get()));
+            } else {
+                missing.add(title);
+            }
+        });
+        return new InfoBatch(found, missing);
+    }
+
+    private Greeting infoGreeting(InformationEntity entity) {
+        return new Greeting(Long.toString(idGenerator.nextId()), String.format(informationTemplate, entity.getTitle(), entity.getDescription()));
+    }
+
+    private Greeting infoGreeting(InformationSnapshot.Entry entry) {
+        return new Greeting(Long.toString(idGenerator.nextId()), String.format(informationTemplate, entry.title(), entry.description()));
+    }
+
+    /**
+     * Full-text search over titles and descriptions, best matches first. See {@link SearchIndex} for the query syntax.
+     */
+    public SearchResults searchInfo(String query, int page, int size) {
+        if (!searchIndex.isEnabled()) {
+            throw new SearchDisabledException();
+        }
+        int limit = Math.max(1, Math.min(size, maxSearchPageSize));
+        long offset = (long) Math.max(0, page) * limit;
+        return searchIndex.search(query, (int) Math.min(offset, Integer.MAX_VALUE), limit);
+    }
+
+    /**
+     * Loads the search index in the background once the application has started, when {@code info.search.enabled=true},
+     * so a large collection delays neither startup nor writes. Searches are marked incomplete until it is loaded.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSearchIndex() {
+        if (!searchIndex.isEnabled()) {
+            return;
+        }
+        Thread.ofVirtual().name("search-index-load").start(() -> {
+            try {
+                rebuildSearchIndex();
+            } catch (RuntimeException e) {
+                log.warn("Could not load the search index", e);
+            }
+        });
+    }
+
+    /**
+     * Loads the search index from the database. Writes made through this service keep it up to date afterwards.
+     */
+    public void rebuildSearchIndex() {
+        try (Stream<InformationEntity> entities = informationRepository.streamEntities()) {
+            searchIndex.rebuild(entities);
+        }
+    }
+
+    /**
+     * Loads the in-memory snapshot once the application has started, when {@code info.snapshot.enabled=true}.
+     * Until then, and when it is disabled, reads go to the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSnapshot() {
+        if (!informationSnapshot.isEnabled()) {
+            return;
+        }
+        try (Stream<InformationEntity> entities = informationRepository.streamEntities()) {
+            informationSnapshot.rebuild(entities);
         }
-        return new Greeting(Long.toString(counter.incrementAndGet()), String.format(informationTemplate, entity.getTitle(), entity.getDescription()));
     }
 
     public List<Greeting> getAllGreetings() {
-        List<InformationEntity> entities = informationRepository.findAll();
-        return entities.stream()
-                .map(entity -> new Greeting(entity.getId(), entity.getTitle()))
+        if (informationSnapshot.isReady()) {
+            return informationSnapshot.greetings();
+        }
+        List<InformationTitle> titles = informationRepository.findTitlesBy();
+        return titles.stream()
+                .map(GreetingsService::toGreeting)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * {@link #getAllGreetings()} already serialized as JSON, when the snapshot is loaded.
+     */
+    public Optional<byte[]> getAllGreetingsJson() {
+        return informationSnapshot.isReady() ? Optional.of(informationSnapshot.greetingsJson()) : Optional.empty();
+    }
+
+    /**
+     * Returns one page of greetings ordered by id. The page's {@code next} token resumes right after its last item.
+     */
+    public GreetingPage getGreetingsPage(int size, String continuationToken) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        String afterId = continuationToken == null ? null : decodeContinuationToken(continuationToken);
+
+        // fetch one extra entity to find out whether another page follows
+        List<Greeting> items = informationSnapshot.isReady()
+                ? informationSnapshot.greetingsAfter(afterId, limit + 1)
+                : informationRepository.findPageAfter(afterId, limit + 1).stream()
+                        .map(GreetingsService::toGreeting)
+                        .collect(Collectors.toList());
+        boolean hasNext = items.size() > limit;
+        if (hasNext) {
+            items = items.subList(0, limit);
+        }
+        String next = hasNext ? encodeContinuationToken(items.get(items.size() - 1).getId()) : null;
+        return new GreetingPage(items, next);
+    }
+
+    /**
+     * Hands every greeting to {@code action} as it is read from the database cursor,
+     * without holding the whole collection in memory, unless the snapshot already holds it.
+     */
+    public void forEachGreeting(Consumer<Greeting> action) {
+        if (informationSnapshot.isReady()) {
+            informationSnapshot.greetings().forEach(action);
+            return;
+        }
+        try (Stream<InformationTitle> titles = informationRepository.streamAll()) {
+            titles.map(GreetingsService::toGreeting)
+                    .forEach(action);
+        }
+    }
+
     public Greeting getGreetingById(String id) throws EntityNotFoundException {
-        Optional<InformationEntity> optionalEntity = informationRepository.findById(id);
-        InformationEntity entity = optionalEntity.orElseThrow(() -> new EntityNotFoundException(id));
-        return new Greeting(entity.getId(), entity.getTitle());
+        if (informationSnapshot.isReady()) {
+            return informationSnapshot.findById(id)
+                    .map(entry -> new Greeting(entry.id(), entry.title()))
+                    .orElseThrow(() -> new EntityNotFoundException(id));
+        }
+        return informationRepository.findTitleById(id)
+                .map(GreetingsService::toGreeting)
+                .orElseThrow(() -> new EntityNotFoundException(id));
     }
 
     public Greeting saveGreeting(Greeting greeting) {
@@ -51,41 +279,160 @@ public class GreetingsService {
         entity.setId(greeting.getId());
         entity.setTitle(greeting.getContent());
         informationRepository.save(entity);
+        informationCache.evictId(entity.getId());
+        informationCache.evictTitle(entity.getTitle());
+        searchIndex.put(entity.getId(), entity.getTitle(), entity.getDescription());
+        informationSnapshot.put(entity);
+        dataVersion.bump();
         return new Greeting(entity.getId(), entity.getTitle());
     }
 
+    /**
+     * Adds {@code entity} unless an entry with its title exists already, so it can run on every start.
+     */
+    public void seedInformation(InformationEntity entity) {
+        if (!informationRepository.insertIfAbsent(entity)) {
+            return;
+        }
+        informationCache.evictTitle(entity.getTitle());
+        searchIndex.put(entity.getId(), entity.getTitle(), entity.getDescription());
+        informationSnapshot.put(entity);
+        dataVersion.bump();
+    }
+
     public List<Greeting> saveAll(List<Greeting> greetings) {
-        List<InformationEntity> entities = greetings.stream()
-                .map(greeting -> {
-                    InformationEntity entity = new InformationEntity();
-                    entity.setId(greeting.getId());
-                    entity.setTitle(greeting.getContent());
-                    return entity;
-                })
+        BatchResult result = ingestGreetings(greetings.iterator());
+        return result.getItems().stream()
+                .filter(item -> item.getStatus() != BatchItemResult.Status.FAILED)
+                .map(item -> new Greeting(item.getId(), greetings.get(item.getIndex()).getContent()))
                 .collect(Collectors.toList());
+    }
 
-        List<InformationEntity> savedEntities = informationRepository.saveAll(entities);
+    /**
+     * Writes greetings as they are pulled from {@code greetings}, in chunks of unordered bulk upserts.
+     * Greetings without an id get a fresh one. A failed item does not stop the rest of its chunk.
+     * When an item cannot be read, the ones read before it are written and the {@link MalformedBatchException}
+     * is thrown again with their results.
+     */
+    public BatchResult ingestGreetings(Iterator<Greeting> greetings) {
+        BatchResult result = new BatchResult();
+        List<InformationEntity> chunk = new ArrayList<>(batchChunkSize);
+        int firstIndex = 0;
+        while (true) {
+            Greeting greeting;
+            try {
+                if (!greetings.hasNext()) {
+                    break;
+                }
+                greeting = greetings.next();
+            } catch (MalformedBatchException e) {
+                if (!chunk.isEmpty()) {
+                    writeChunk(chunk, firstIndex, result);
+                }
+                throw new MalformedBatchException(e.getIndex(), result, e.getCause());
+            }
+            String id = greeting.getId() != null ? greeting.getId() : new ObjectId().toHexString();
+            chunk.add(new InformationEntity(id, greeting.getContent(), null));
+            if (chunk.size() == batchChunkSize) {
+                writeChunk(chunk, firstIndex, result);
+                firstIndex += chunk.size();
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, firstIndex, result);
+        }
+        return result;
+    }
 
-        return savedEntities.stream()
-                .map(entity -> new Greeting(entity.getId(), entity.getTitle()))
-                .collect(Collectors.toList());
+    private void writeChunk(List<InformationEntity> chunk, int firstIndex, BatchResult result) {
+        BulkWriteResult writeResult;
+        Map<Integer, String> errors = new HashMap<>();
+        try {
+            writeResult = informationRepository.upsertAll(chunk);
+        } catch (BulkOperationException e) {
+            writeResult = e.getResult();
+            for (BulkWriteError error : e.getErrors()) {
+                errors.put(error.getIndex(), error.getMessage());
+            }
+        } finally {
+            informationCache.invalidateAll();
+            dataVersion.bump();
+        }
+
+        boolean[] upserted = new boolean[chunk.size()];
+        for (BulkWriteUpsert upsert : writeResult.getUpserts()) {
+            upserted[upsert.getIndex()] = true;
+        }
+        List<InformationEntity> written = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            InformationEntity entity = chunk.get(i);
+            String id = entity.getId();
+            if (errors.containsKey(i)) {
+                result.add(new BatchItemResult(firstIndex + i, id, BatchItemResult.Status.FAILED, errors.get(i)));
+                continue;
+            }
+            written.add(entity);
+            searchIndex.put(id, entity.getTitle(), entity.getDescription());
+            if (upserted[i]) {
+                result.add(new BatchItemResult(firstIndex + i, id, BatchItemResult.Status.INSERTED, null));
+            } else {
+                result.add(new BatchItemResult(firstIndex + i, id, BatchItemResult.Status.UPDATED, null));
+            }
+        }
+        if (informationSnapshot.isEnabled()) {
+            // one copy of the snapshot per chunk rather than per greeting; bumped again, as a read between the two
+            // bumps may have tagged the old snapshot with the first one
+            informationSnapshot.putAll(written);
+            dataVersion.bump();
+        }
     }
 
     public Greeting updateGreeting(String id, Greeting greeting) throws EntityNotFoundException {
-        InformationEntity entity = informationRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.valueOf(id)));
-        entity.setTitle(greeting.getContent());
-        informationRepository.save(entity);
-        return new Greeting(entity.getId(), entity.getTitle());
+        InformationEntity previous = informationRepository.updateTitle(id, greeting.getContent());
+        if (previous == null) {
+            throw new EntityNotFoundException(String.valueOf(id));
+        }
+        informationCache.evictTitle(previous.getTitle());
+        informationCache.evictTitle(greeting.getContent());
+        searchIndex.put(id, greeting.getContent(), previous.getDescription());
+        informationSnapshot.put(new InformationEntity(id, greeting.getContent(), previous.getDescription()));
+        dataVersion.bump();
+        return new Greeting(id, greeting.getContent());
     }
 
     public void deleteGreeting(String id) throws EntityNotFoundException {
-        InformationEntity entity = informationRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(String.valueOf(id)));
-        informationRepository.delete(entity);
+        InformationEntity deleted = informationRepository.removeById(id);
+        if (deleted == null) {
+            throw new EntityNotFoundException(String.valueOf(id));
+        }
+        informationCache.evictTitle(deleted.getTitle());
+        searchIndex.remove(id);
+        informationSnapshot.remove(id);
+        dataVersion.bump();
     }
 
     public void deleteAllGreetings() {
         informationRepository.deleteAll();
+        informationCache.invalidateAll();
+        searchIndex.clear();
+        informationSnapshot.clear();
+        dataVersion.bump();
+    }
+
+    private static Greeting toGreeting(InformationTitle title) {
+        return new Greeting(title.id(), title.title());
+    }
+
+    private static String encodeContinuationToken(String id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeContinuationToken(String token) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidContinuationTokenException(token);
+        }
     }
 }
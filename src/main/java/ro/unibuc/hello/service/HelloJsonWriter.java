@@ -0,0 +1,176 @@
+package ro.unibuc.hello.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes the {@code /hello-world} greeting as JSON bytes straight to an output stream,
+ * without building the content String or a {@link ro.unibuc.hello.dto.Greeting}.
+ * For well-formed names the output is byte-for-byte what Jackson produces for the equivalent Greeting.
+ */
+public final class HelloJsonWriter {
+
+    private static final byte[] idStart = "{\"id\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] contentStart = "\",\"content\":\"".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] end = "\"}".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] hexDigits = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    // the template text around "%s", already escaped and encoded
+    private final byte[] templatePrefix;
+    private final byte[] templateSuffix;
+
+    public HelloJsonWriter(String template) {
+        int placeholder = template.indexOf("%s");
+        if (placeholder < 0 || template.indexOf('%', placeholder + 2) >= 0) {
+            throw new IllegalArgumentException("Template must contain exactly one %s: " + template);
+        }
+        this.templatePrefix = encode(template.substring(0, placeholder));
+        this.templateSuffix = encode(template.substring(placeholder + 2));
+    }
+
+    /**
+     * Number of bytes {@link #write} produces for the same arguments, to be sent as Content-Length.
+     */
+    public int length(long id, String name) {
+        return idStart.length + digits(id) + contentStart.length + templatePrefix.length
+                + escapedLength(name == null ? "null" : name) + templateSuffix.length + end.length;
+    }
+
+    public void write(long id, String name, OutputStream out) throws IOException {
+        out.write(idStart);
+        writeDigits(id, out);
+        out.write(contentStart);
+        out.write(templatePrefix);
+        writeEscaped(name == null ? "null" : name, out);
+        out.write(templateSuffix);
+        out.write(end);
+    }
+
+    private static byte[] encode(String text) {
+        FixedBufferOutputStream out = new FixedBufferOutputStream(escapedLength(text));
+        try {
+            writeEscaped(text, out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.bytes;
+    }
+
+    private static int digits(long value) {
+        if (value < 0) {
+            return 1 + digits(-value);
+        }
+        int digits = 1;
+        for (long limit = 10; digits < 19 && value >= limit; limit *= 10) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private static void writeDigits(long value, OutputStream out) throws IOException {
+        if (value < 0) {
+            out.write('-');
+            value = -value;
+        }
+        long divisor = 1;
+        for (int i = 1, digits = digits(value); i < digits; i++) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.write('0' + (int) (value / divisor % 10));
+        }
+    }
+
+    private static int escapedLength(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\' || c == '\n' || c == '\r' || c == '\t' || c == '\b' || c == '\f') {
+                length += 2;
+            } else if (c < 0x20) {
+                length += 6;
+            } else if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 12;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length += 1;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static void writeEscaped(String text, OutputStream out) throws IOException {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '"' -> writeEscape('"', out);
+                case '\\' -> writeEscape('\\', out);
+                case '\n' -> writeEscape('n', out);
+                case '\r' -> writeEscape('r', out);
+                case '\t' -> writeEscape('t', out);
+                case '\b' -> writeEscape('b', out);
+                case '\f' -> writeEscape('f', out);
+                default -> {
+                    if (c < 0x20) {
+                        writeUnicodeEscape(c, out);
+                    } else if (c < 0x80) {
+                        out.write(c);
+                    } else if (c < 0x800) {
+                        out.write(0xC0 | (c >> 6));
+                        out.write(0x80 | (c & 0x3F));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                        // Jackson escapes characters outside the BMP as a surrogate pair instead of writing 4 UTF-8 bytes
+                        writeUnicodeEscape(c, out);
+                        writeUnicodeEscape(text.charAt(++i), out);
+                    } else if (Character.isSurrogate(c)) {
+                        // unpaired surrogate, replaced the same way String.getBytes does
+                        out.write('?');
+                    } else {
+                        out.write(0xE0 | (c >> 12));
+                        out.write(0x80 | ((c >> 6) & 0x3F));
+                        out.write(0x80 | (c & 0x3F));
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeEscape(char escaped, OutputStream out) throws IOException {
+        out.write('\\');
+        out.write(escaped);
+    }
+
+    private static void writeUnicodeEscape(char c, OutputStream out) throws IOException {
+        out.write('\\');
+        out.write('u');
+        out.write(hexDigits[c >> 12]);
+        out.write(hexDigits[(c >> 8) & 0xF]);
+        out.write(hexDigits[(c >> 4) & 0xF]);
+        out.write(hexDigits[c & 0xF]);
+    }
+
+    /**
+     * Fixed-size sink used once per template part at construction time.
+     */
+    private static final class FixedBufferOutputStream extends OutputStream {
+
+        private final byte[] bytes;
+        private int position;
+
+        private FixedBufferOutputStream(int size) {
+            this.bytes = new byte[size];
+        }
+
+        @Override
+        public void write(int b) {
+            bytes[position++] = (byte) b;
+        }
+    }
+}
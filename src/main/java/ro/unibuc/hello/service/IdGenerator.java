@@ -0,0 +1,10 @@
+package ro.unibuc.hello.service;
+
+/**
+ * Source of the ids handed out with every greeting. Ids are unique for the lifetime of the generator, and never 0.
+ * The implementation is picked with {@code hello.id.generator}, see {@code IdGeneratorConfig}.
+ */
+public interface IdGenerator {
+
+    long nextId();
+}
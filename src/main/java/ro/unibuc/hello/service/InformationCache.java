@@ -0,0 +1,153 @@
+package ro.unibuc.hello.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.InformationEntity;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of information entries keyed by title.
+ * Unknown titles are cached as empty results, so repeated misses do not hit the database either.
+ * Concurrent misses for the same title share a single load, see {@link SingleFlight}.
+ * A max size of 0 disables caching and every lookup goes to the loader, still coalesced.
+ */
+@Component
+public class InformationCache {
+
+    private final Cache<String, Optional<InformationEntity>> cache;
+
+    // bumped on every invalidation, so a load that raced with a write does not repopulate stale data
+    private final AtomicLong generation = new AtomicLong();
+
+    // keyed by generation too, so a lookup starting after a write never waits for a load that started before it
+    private final SingleFlight<Lookup, Optional<InformationEntity>> lookups;
+
+    private record Lookup(String title, long generation) {
+    }
+
+    @Autowired
+    public InformationCache(@Value("${info.cache.max-size:1000}") long maxSize,
+                            @Value("${info.cache.ttl:60s}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this(maxSize, ttl, meterRegistry, Ticker.systemTicker());
+    }
+
+    InformationCache(long maxSize, Duration ttl, MeterRegistry meterRegistry, Ticker ticker) {
+        this.lookups = new SingleFlight<>("info.lookup", meterRegistry);
+        if (maxSize <= 0) {
+            this.cache = null;
+            return;
+        }
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "info");
+    }
+
+    public Optional<InformationEntity> get(String title, Function<String, InformationEntity> loader) {
+        if (cache != null) {
+            Optional<InformationEntity> cached = cache.getIfPresent(title);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        long stamp = generation.get();
+        return lookups.execute(new Lookup(title, stamp), lookup -> {
+            Optional<InformationEntity> loaded = Optional.ofNullable(loader.apply(title));
+            putIfCurrent(title, loaded, stamp);
+            return loaded;
+        });
+    }
+
+    /**
+     * Looks up every title, loading all the uncached ones with a single call to {@code loader}.
+     * The result has an entry per distinct title, in the order of {@code titles}.
+     */
+    public Map<String, Optional<InformationEntity>> getAll(Collection<String> titles,
+                                                           Function<Set<String>, List<InformationEntity>> loader) {
+        Map<String, Optional<InformationEntity>> result = new LinkedHashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String title : titles) {
+            Optional<InformationEntity> cached = cache == null ? null : cache.getIfPresent(title);
+            result.put(title, cached == null ? Optional.empty() : cached);
+            if (cached == null) {
+                missing.add(title);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long stamp = generation.get();
+        Map<String, InformationEntity> byTitle = new HashMap<>();
+        for (InformationEntity entity : loader.apply(missing)) {
+            byTitle.putIfAbsent(entity.getTitle(), entity);
+        }
+        for (String title : missing) {
+            Optional<InformationEntity> loaded = Optional.ofNullable(byTitle.get(title));
+            result.put(title, loaded);
+            putIfCurrent(title, loaded, stamp);
+        }
+        return result;
+    }
+
+    private void putIfCurrent(String title, Optional<InformationEntity> loaded, long stamp) {
+        if (cache == null || generation.get() != stamp) {
+            return;
+        }
+        cache.put(title, loaded);
+        // writers bump the generation before evicting, so a write that evicted between the check and the put shows up here
+        if (generation.get() != stamp) {
+            cache.asMap().remove(title, loaded);
+        }
+    }
+
+    public void evictTitle(String title) {
+        generation.incrementAndGet();
+        if (cache == null || title == null) {
+            return;
+        }
+        cache.invalidate(title);
+    }
+
+    /**
+     * Evicts every cached entry backed by the document with the given id.
+     * Used when a write does not tell us which title the document had before.
+     */
+    public void evictId(String id) {
+        generation.incrementAndGet();
+        if (cache == null || id == null) {
+            return;
+        }
+        cache.asMap().values().removeIf(entry -> entry.isPresent() && Objects.equals(id, entry.get().getId()));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        if (cache == null) {
+            return;
+        }
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,289 @@
+package ro.unibuc.hello.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.InformationEntity;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static com.mongodb.client.model.Filters.eq;
+
+/**
+ * Follows the information collection's change stream and drops the entries of changed documents from the local
+ * {@link InformationCache}, so writes made through any replica, or straight in Mongo, reach every replica's cache.
+ * Each event also bumps {@link DataVersion}, so conditional GETs stop answering 304, and is applied to the
+ * {@link SearchIndex} and the {@link InformationSnapshot}, so searches and snapshot reads see documents written elsewhere.
+ * <p>
+ * The last processed resume token is kept in the {@code changeStreamResumeTokens} collection under
+ * {@code info.change-stream.consumer-id} (the pod name by default), so a restarted listener resumes where it stopped.
+ * Pods of a Deployment get a new name on every restart and start from the current position instead, which loses
+ * nothing, since a new process starts with an empty cache and freshly loaded search index and snapshot.
+ * If the token has fallen off the oplog, the stream breaks, or an event cannot be applied, the whole cache is dropped
+ * and the search index and snapshot rebuilt before following again.
+ * Change streams need a replica set or a sharded cluster. Switched on with {@code info.change-stream.enabled=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "info.change-stream.enabled", havingValue = "true")
+public class InformationChangeListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(InformationChangeListener.class);
+
+    static final String TOKEN_COLLECTION = "changeStreamResumeTokens";
+
+    // server error codes meaning the resume token can no longer be used
+    private static final Set<Integer> HISTORY_LOST = Set.of(260, 280, 286);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private InformationCache informationCache;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @Autowired
+    private SearchIndex searchIndex;
+
+    @Autowired
+    private InformationSnapshot informationSnapshot;
+
+    @Value("${info.change-stream.consumer-id}")
+    private String consumerId;
+
+    @Value("${info.change-stream.token-save-interval:1s}")
+    private Duration tokenSaveInterval = Duration.ofSeconds(1);
+
+    @Value("${info.change-stream.retry-delay:1s}")
+    private Duration retryDelay = Duration.ofSeconds(1);
+
+    private final Counter events;
+    private final Counter failures;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    private BsonDocument resumeToken;
+    private BsonDocument savedToken;
+    private long savedAt;
+
+    public InformationChangeListener(MeterRegistry meterRegistry) {
+        this.events = Counter.builder("info.change-stream.events")
+                .description("Change events of the information collection applied to the local cache")
+                .register(meterRegistry);
+        this.failures = Counter.builder("info.change-stream.failures")
+                .description("Times the change stream broke, or an event could not be applied, and the local cache was dropped")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void start() {
+        tokens().createIndex(Indexes.ascending("updatedAt"), new IndexOptions().expireAfter(7L, TimeUnit.DAYS));
+        Document stored = tokens().find(eq("_id", consumerId)).first();
+        if (stored != null) {
+            resumeToken = stored.get("token", Document.class).toBsonDocument();
+            savedToken = resumeToken;
+        }
+        // opened before start returns, so no write made after startup can be missed
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openCursor();
+        running = true;
+        thread = Thread.ofPlatform().name("info-change-stream").daemon().start(() -> follow(cursor));
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor() {
+        try {
+            return changeStream().cursor();
+        } catch (MongoCommandException e) {
+            if (!HISTORY_LOST.contains(e.getErrorCode())) {
+                throw e;
+            }
+            log.warn("Stored change stream resume token is no longer valid, following from now on");
+            resumeToken = null;
+            return changeStream().cursor();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // started before the web server, so the stream is open before the first request is served
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void follow(MongoChangeStreamCursor<ChangeStreamDocument<Document>> initialCursor) {
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> next = initialCursor;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = next != null ? next : changeStream().cursor()) {
+                next = null;
+                while (running) {
+                    ChangeStreamDocument<Document> event = cursor.tryNext();
+                    if (event != null) {
+                        try {
+                            apply(event);
+                        } catch (RuntimeException e) {
+                            // skipped rather than retried, so one bad document cannot stop invalidation for good
+                            failures.increment();
+                            log.warn("Could not apply change event {}, dropping the local cache", event.getOperationType(), e);
+                            resync();
+                        }
+                    }
+                    // also advances on idle batches, so the saved token does not fall behind the oplog window
+                    if (cursor.getResumeToken() != null) {
+                        resumeToken = cursor.getResumeToken();
+                    }
+                    saveToken(false);
+                }
+                saveToken(true);
+            } catch (RuntimeException e) {
+                if (!running) {
+                    break;
+                }
+                failures.increment();
+                if (e instanceof MongoCommandException commandException && HISTORY_LOST.contains(commandException.getErrorCode())) {
+                    log.warn("Change stream resume token is no longer valid, following from now on", e);
+                    resumeToken = null;
+                } else {
+                    log.warn("Change stream failed, resuming in {}", retryDelay, e);
+                }
+                // events may have been missed in between
+                resync();
+                sleep(retryDelay);
+            }
+        }
+    }
+
+    private ChangeStreamIterable<Document> changeStream() {
+        ChangeStreamIterable<Document> changeStream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(InformationEntity.class))
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        return resumeToken == null ? changeStream : changeStream.resumeAfter(resumeToken);
+    }
+
+    void apply(ChangeStreamDocument<Document> event) {
+        events.increment();
+        switch (event.getOperationType()) {
+            case INSERT, UPDATE, REPLACE, DELETE -> {
+                // the old title is not part of the event: cached entries are found by id,
+                // and the new title may be cached as missing
+                String id = event.getDocumentKey() == null ? null : id(event.getDocumentKey().get("_id"));
+                Document document = event.getFullDocument();
+                informationCache.evictId(id);
+                if (document != null) {
+                    informationCache.evictTitle(document.getString("title"));
+                }
+                // an update's document is looked up later, and is missing if it was deleted since
+                if (id != null && document != null) {
+                    searchIndex.put(id, document.getString("title"), document.getString("description"));
+                    informationSnapshot.put(new InformationEntity(id, document.getString("title"), document.getString("description")));
+                } else if (id != null) {
+                    searchIndex.remove(id);
+                    informationSnapshot.remove(id);
+                }
+            }
+            default -> {
+                informationCache.invalidateAll();
+                rebuildLocalCopies();
+            }
+        }
+        dataVersion.bump();
+    }
+
+    private void resync() {
+        informationCache.invalidateAll();
+        rebuildLocalCopies();
+        dataVersion.bump();
+    }
+
+    private void rebuildLocalCopies() {
+        if (searchIndex.isEnabled()) {
+            try (Stream<InformationEntity> entities = mongoTemplate.stream(new Query(), InformationEntity.class)) {
+                searchIndex.rebuild(entities);
+            } catch (RuntimeException e) {
+                log.warn("Could not rebuild the search index", e);
+            }
+        }
+        if (!informationSnapshot.isEnabled()) {
+            return;
+        }
+        try (Stream<InformationEntity> entities = mongoTemplate.stream(new Query(), InformationEntity.class)) {
+            informationSnapshot.rebuild(entities);
+        } catch (RuntimeException e) {
+            log.warn("Could not rebuild the information snapshot", e);
+        }
+    }
+
+    private void saveToken(boolean force) {
+        if (resumeToken == null || resumeToken.equals(savedToken)) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (!force && now - savedAt < tokenSaveInterval.toNanos()) {
+            return;
+        }
+        tokens().replaceOne(eq("_id", consumerId),
+                new Document("_id", consumerId).append("token", resumeToken).append("updatedAt", new Date()),
+                new ReplaceOptions().upsert(true));
+        savedToken = resumeToken;
+        savedAt = now;
+    }
+
+    private MongoCollection<Document> tokens() {
+        return mongoTemplate.getCollection(TOKEN_COLLECTION);
+    }
+
+    // mirrors how the entity's String id is stored: as an ObjectId when it is a valid one
+    private static String id(BsonValue id) {
+        return id.isObjectId() ? id.asObjectId().getValue().toHexString() : id.isString() ? id.asString().getValue() : id.toString();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.data.InformationRepository;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Gathers single-title lookups from concurrent requests into one {@code $in} query.
+ * The first lookup of a batch waits for the window ({@code info.lookup.batch-window}) or until the batch is full,
+ * then runs the query on its own thread and hands every other caller its entity.
+ * A window of 0 (the default) disables batching.
+ */
+@Component
+public class InformationLookupBatcher {
+
+    @Autowired
+    private InformationRepository informationRepository;
+
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+
+    // a ReentrantLock rather than synchronized, so waiting virtual threads can unmount
+    private final ReentrantLock lock = new ReentrantLock();
+    private Batch open;
+
+    public InformationLookupBatcher(@Value("${info.lookup.batch-window:0ms}") Duration window,
+                                    @Value("${info.lookup.batch-max-size:100}") int maxBatchSize,
+                                    MeterRegistry meterRegistry) {
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("info.lookup.batch.size")
+                .description("Distinct titles resolved by one batched lookup query")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return windowNanos > 0;
+    }
+
+    public InformationEntity findByTitle(String title) {
+        Batch batch;
+        CompletableFuture<InformationEntity> result;
+        boolean leader = false;
+        lock.lock();
+        try {
+            if (open == null) {
+                open = new Batch();
+                leader = true;
+            }
+            batch = open;
+            result = batch.lookups.computeIfAbsent(title, key -> new CompletableFuture<>());
+            if (batch.lookups.size() >= maxBatchSize) {
+                open = null;
+                batch.full.countDown();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (leader) {
+            run(batch);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    private void run(Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            if (open == batch) {
+                open = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // no lookup can join the batch any more
+        batchSizes.record(batch.lookups.size());
+        try {
+            Map<String, InformationEntity> byTitle = new HashMap<>();
+            for (InformationEntity entity : informationRepository.findByTitleIn(batch.lookups.keySet())) {
+                byTitle.putIfAbsent(entity.getTitle(), entity);
+            }
+            batch.lookups.forEach((title, lookup) -> lookup.complete(byTitle.get(title)));
+        } catch (RuntimeException | Error e) {
+            batch.lookups.values().forEach(lookup -> lookup.completeExceptionally(e));
+        }
+    }
+
+    private static final class Batch {
+        // only modified under the batcher's lock, and read by the leader once the batch is closed
+        private final Map<String, CompletableFuture<InformationEntity>> lookups = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+    }
+}
@@ -0,0 +1,229 @@
+package ro.unibuc.hello.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.dto.Greeting;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Full copy of the information collection in memory, for the read-mostly deployments where it is small:
+ * entries by id and by title, in id order for paging, and the JSON body of {@code GET /greetings} serialized once.
+ * <p>
+ * Readers get the current {@link State} through a volatile read and never lock. Writers copy the state, change the
+ * copy and publish it; they are applied by {@link GreetingsService} after each write to Mongo, and by
+ * {@link InformationChangeListener} for writes made through other replicas. A write therefore costs a copy of the
+ * whole snapshot, which is why this mode is meant for small collections only.
+ * Switched on with {@code info.snapshot.enabled=true}; until the first {@link #rebuild} completes, reads go to Mongo.
+ */
+@Component
+public class InformationSnapshot {
+
+    /**
+     * Mongo's {@code _id} order: ids that are valid ObjectIds are stored as ObjectIds, which sort after strings,
+     * and the hex form of ObjectIds sorts like their bytes.
+     */
+    static final Comparator<String> ID_ORDER = Comparator.comparing((String id) -> ObjectId.isValid(id))
+            .thenComparing(Comparator.naturalOrder());
+
+    public record Entry(String id, String title, String description) {
+    }
+
+    private final boolean enabled;
+    private final ObjectMapper objectMapper;
+
+    // held by writers only, and for the whole of a rebuild, so no write is lost to a concurrent rebuild
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile State state;
+
+    private final class State {
+        private final Map<String, Entry> byId;
+        private final Map<String, Entry> byTitle;
+        private final Entry[] ordered;
+        // derived on first use, so a burst of writes does not serialize the collection once per write;
+        // racing readers may both compute it, with the same result
+        private volatile List<Greeting> greetings;
+        private volatile byte[] greetingsJson;
+
+        State(Map<String, Entry> byId, Entry[] ordered) {
+            this.byId = byId;
+            this.ordered = ordered;
+            this.byTitle = new HashMap<>(byId.size() * 2);
+            // the first entry in id order wins when titles repeat, as with an unsorted query on a small collection
+            for (int i = ordered.length - 1; i >= 0; i--) {
+                byTitle.put(ordered[i].title(), ordered[i]);
+            }
+        }
+
+        List<Greeting> greetings() {
+            List<Greeting> current = greetings;
+            if (current == null) {
+                current = Arrays.stream(ordered).map(entry -> new Greeting(entry.id(), entry.title())).toList();
+                greetings = current;
+            }
+            return current;
+        }
+
+        byte[] greetingsJson() {
+            byte[] current = greetingsJson;
+            if (current == null) {
+                try {
+                    current = objectMapper.writeValueAsBytes(greetings());
+                } catch (JsonProcessingException e) {
+                    throw new UncheckedIOException(e);
+                }
+                greetingsJson = current;
+            }
+            return current;
+        }
+    }
+
+    public InformationSnapshot(@Value("${info.snapshot.enabled:false}") boolean enabled,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.objectMapper = objectMapper;
+        Gauge.builder("info.snapshot.entries", this, snapshot -> {
+                    State current = snapshot.state;
+                    return current == null ? 0 : current.ordered.length;
+                })
+                .description("Information entries held in the in-memory snapshot")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether reads can be answered from the snapshot: it is enabled and has been loaded.
+     */
+    public boolean isReady() {
+        return state != null;
+    }
+
+    /**
+     * Replaces the snapshot with {@code entities}. Writes applied meanwhile wait and are applied on top.
+     */
+    public void rebuild(Stream<InformationEntity> entities) {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            Map<String, Entry> byId = new HashMap<>();
+            entities.forEach(entity -> byId.put(entity.getId(), entry(entity)));
+            publish(byId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void put(InformationEntity entity) {
+        putAll(List.of(entity));
+    }
+
+    public void putAll(Collection<InformationEntity> entities) {
+        if (!enabled || entities.isEmpty()) {
+            return;
+        }
+        update(byId -> entities.forEach(entity -> byId.put(entity.getId(), entry(entity))));
+    }
+
+    public void remove(String id) {
+        if (!enabled) {
+            return;
+        }
+        update(byId -> byId.remove(id));
+    }
+
+    public void clear() {
+        if (!enabled) {
+            return;
+        }
+        update(Map::clear);
+    }
+
+    public Optional<Entry> findById(String id) {
+        return Optional.ofNullable(state.byId.get(id));
+    }
+
+    public Optional<Entry> findByTitle(String title) {
+        return Optional.ofNullable(state.byTitle.get(title));
+    }
+
+    /**
+     * Every greeting, in id order. The list is shared between callers and must not be modified.
+     */
+    public List<Greeting> greetings() {
+        return state.greetings();
+    }
+
+    /**
+     * {@link #greetings()} serialized as a JSON array. The array is shared between callers and must not be modified.
+     */
+    public byte[] greetingsJson() {
+        return state.greetingsJson();
+    }
+
+    /**
+     * Up to {@code limit} greetings following {@code afterId} in id order, from the first one when it is null.
+     */
+    public List<Greeting> greetingsAfter(String afterId, int limit) {
+        State current = state;
+        int from = 0;
+        if (afterId != null) {
+            int position = Arrays.binarySearch(current.ordered, new Entry(afterId, null, null),
+                    Comparator.comparing(Entry::id, ID_ORDER));
+            from = position >= 0 ? position + 1 : -position - 1;
+        }
+        List<Greeting> page = new ArrayList<>(Math.min(limit, Math.max(0, current.ordered.length - from)));
+        for (int i = from; i < current.ordered.length && page.size() < limit; i++) {
+            page.add(new Greeting(current.ordered[i].id(), current.ordered[i].title()));
+        }
+        return page;
+    }
+
+    private void update(Consumer<Map<String, Entry>> change) {
+        writeLock.lock();
+        try {
+            if (state == null) {
+                // not loaded yet: the rebuild reads this write from Mongo
+                return;
+            }
+            Map<String, Entry> byId = new HashMap<>(state.byId);
+            change.accept(byId);
+            publish(byId);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void publish(Map<String, Entry> byId) {
+        Entry[] ordered = byId.values().toArray(new Entry[0]);
+        // hash order, so this is a full sort, but of a collection small enough to be copied on every write anyway
+        Arrays.sort(ordered, Comparator.comparing(Entry::id, ID_ORDER));
+        state = new State(byId, ordered);
+    }
+
+    private static Entry entry(InformationEntity entity) {
+        return new Entry(entity.getId(), entity.getTitle(), entity.getDescription());
+    }
+}
@@ -0,0 +1,71 @@
+package ro.unibuc.hello.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.data.ReactiveInformationRepository;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.exception.EntityNotFoundException;
+
+/**
+ * {@link GreetingsService} on top of the reactive driver, used by the "reactive" profile.
+ */
+@Component
+@Profile("reactive")
+public class ReactiveGreetingsService {
+
+    @Autowired
+    private ReactiveInformationRepository informationRepository;
+
+    @Autowired
+    private IdGenerator idGenerator;
+
+    private static final String helloTemplate = "Hello, %s!";
+    private static final String informationTemplate = "%s : %s!";
+
+    public Mono<Greeting> hello(String name) {
+        return Mono.fromSupplier(() -> new Greeting(Long.toString(idGenerator.nextId()), String.format(helloTemplate, name)));
+    }
+
+    public Mono<Greeting> buildGreetingFromInfo(String title) {
+        return informationRepository.findByTitle(title)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(title)))
+                .map(entity -> new Greeting(Long.toString(idGenerator.nextId()), String.format(informationTemplate, entity.getTitle(), entity.getDescription())));
+    }
+
+    public Flux<Greeting> getAllGreetings() {
+        return informationRepository.findTitlesBy()
+                .map(title -> new Greeting(title.id(), title.title()));
+    }
+
+    public Mono<Greeting> saveGreeting(Greeting greeting) {
+        InformationEntity entity = new InformationEntity();
+        entity.setId(greeting.getId());
+        entity.setTitle(greeting.getContent());
+        return informationRepository.save(entity)
+                .map(saved -> new Greeting(saved.getId(), saved.getTitle()));
+    }
+
+    public Mono<Greeting> updateGreeting(String id, Greeting greeting) {
+        return informationRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)))
+                .flatMap(entity -> {
+                    entity.setTitle(greeting.getContent());
+                    return informationRepository.save(entity);
+                })
+                .map(saved -> new Greeting(saved.getId(), saved.getTitle()));
+    }
+
+    public Mono<Void> deleteGreeting(String id) {
+        return informationRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(id)))
+                .flatMap(informationRepository::delete);
+    }
+
+    public Mono<Void> deleteAllGreetings() {
+        return informationRepository.deleteAll();
+    }
+}
@@ -0,0 +1,596 @@
+package ro.unibuc.hello.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.dto.SearchHit;
+import ro.unibuc.hello.dto.SearchResults;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over the title and description of every information entry, ranked with BM25.
+ * <p>
+ * Query terms are ANDed; a term ending in {@code *} matches every indexed term starting with it.
+ * Terms are kept in a skip list, so prefixes are a range scan, and each term's postings are a sorted array
+ * of internal document numbers, so the rarest term drives the query and the others are searched forward from it.
+ * <p>
+ * Reads are lock-free. Writes are serialized, append to the postings and publish them through volatile fields.
+ * Updated and deleted documents leave dead postings behind, which are dropped once they outnumber the live documents.
+ * A rebuild reads the database without blocking writes: they are applied to the current index as usual, and replayed
+ * on the rebuilt one before it replaces it.
+ * <p>
+ * Switched on with {@code info.search.enabled=true}; when off, every write is ignored and nothing is loaded.
+ */
+@Component
+public class SearchIndex {
+
+    // a title word counts as this many description words
+    static final int TITLE_WEIGHT = 3;
+    // indexed terms a single prefix may expand to
+    static final int MAX_EXPANSIONS = 64;
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_DEAD_TO_COMPACT = 1024;
+
+    // worst first, for a min-heap of the best hits; ties go to the older document, the one with the lower number
+    private static final Comparator<Candidate> RANKING = Comparator.comparingDouble(Candidate::score)
+            .thenComparing(Candidate::docNo, Comparator.reverseOrder());
+
+    private final boolean enabled;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Segment segment = new Segment();
+    private volatile boolean loaded;
+    // writes made while a rebuild reads the database, guarded by the write lock; null when no rebuild is running
+    private List<UnaryOperator<Segment>> pendingWrites;
+
+    public SearchIndex(@Value("${info.search.enabled:false}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void put(String id, String title, String description) {
+        write(current -> {
+            current.remove(id);
+            current.add(id, title, description);
+            return current;
+        });
+    }
+
+    public void remove(String id) {
+        write(current -> {
+            current.remove(id);
+            return current;
+        });
+    }
+
+    public void clear() {
+        write(current -> new Segment());
+    }
+
+    /**
+     * Replaces the whole index with {@code entities}. Writes made meanwhile are not blocked, and are applied on top.
+     */
+    public void rebuild(Stream<InformationEntity> entities) {
+        if (!enabled) {
+            return;
+        }
+        rebuildLock.lock();
+        try {
+            record(new ArrayList<>());
+            Segment rebuilt = new Segment();
+            try {
+                // only this thread sees the rebuilt segment until it is published
+                entities.forEach(entity -> {
+                    rebuilt.remove(entity.getId());
+                    rebuilt.add(entity.getId(), entity.getTitle(), entity.getDescription());
+                });
+            } catch (RuntimeException e) {
+                record(null);
+                throw e;
+            }
+            writeLock.lock();
+            try {
+                Segment replayed = rebuilt;
+                for (UnaryOperator<Segment> write : pendingWrites) {
+                    replayed = write.apply(replayed);
+                }
+                pendingWrites = null;
+                segment = replayed;
+                compactIfNeeded();
+                loaded = true;
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public int size() {
+        return segment.live;
+    }
+
+    private void write(UnaryOperator<Segment> change) {
+        if (!enabled) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            segment = change.apply(segment);
+            compactIfNeeded();
+            if (pendingWrites != null) {
+                pendingWrites.add(change);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void record(List<UnaryOperator<Segment>> writes) {
+        writeLock.lock();
+        try {
+            pendingWrites = writes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * The results are marked incomplete while the index is loading, and when a prefix matched more than
+     * {@link #MAX_EXPANSIONS} indexed terms: only the most frequent ones are searched.
+     *
+     * @param offset hits to skip, for pagination
+     * @param limit  hits to return at most
+     */
+    public SearchResults search(String query, int offset, int limit) {
+        boolean ready = loaded;
+        Segment current = segment;
+        List<QueryTerm> terms = parse(query, current);
+        if (terms.isEmpty() || limit <= 0 || terms.stream().anyMatch(QueryTerm::isEmpty)) {
+            return new SearchResults(0, Collections.emptyList(), ready);
+        }
+        boolean complete = ready && terms.stream().noneMatch(QueryTerm::isTruncated);
+        terms.sort(Comparator.comparingLong(QueryTerm::cost));
+
+        Doc[] docs = current.docs;
+        int[] lengths = current.lengths;
+        double averageLength = current.live == 0 ? 1 : Math.max(1, (double) current.totalLength / current.live);
+        int keep = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+
+        // the rarest term yields the candidates in document order, the other terms' cursors only move forward
+        PriorityQueue<Candidate> best = new PriorityQueue<>(RANKING);
+        long total = 0;
+        QueryTerm driver = terms.get(0);
+        driver.startMerge();
+        for (int docNo = driver.nextDoc(); docNo >= 0; docNo = driver.nextDoc()) {
+            if (docs[docNo] == null) {
+                continue;
+            }
+            double score = driver.mergedScore(lengths[docNo], averageLength);
+            for (int t = 1; t < terms.size() && score > 0; t++) {
+                double termScore = terms.get(t).score(docNo, lengths[docNo], averageLength);
+                score = termScore == 0 ? 0 : score + termScore;
+            }
+            if (score == 0) {
+                continue;
+            }
+            total++;
+            if (best.size() < keep || score > best.peek().score) {
+                Doc doc = docs[docNo];
+                if (doc == null) {
+                    total--;
+                    continue;
+                }
+                if (best.size() == keep) {
+                    best.poll();
+                }
+                best.add(new Candidate(docNo, doc, score));
+            }
+        }
+
+        if (best.size() <= offset) {
+            return new SearchResults(total, Collections.emptyList(), complete);
+        }
+        SearchHit[] hits = new SearchHit[best.size() - offset];
+        for (int i = best.size() - 1; i >= 0; i--) {
+            Candidate candidate = best.poll();
+            if (i >= offset) {
+                hits[i - offset] = new SearchHit(candidate.doc.id, candidate.doc.title, candidate.score);
+            }
+        }
+        return new SearchResults(total, Arrays.asList(hits), complete);
+    }
+
+    private static double bm25(double idf, int frequency, int length, double averageLength) {
+        return idf * frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+    }
+
+    private static List<QueryTerm> parse(String query, Segment segment) {
+        List<QueryTerm> terms = new ArrayList<>();
+        if (query == null) {
+            return terms;
+        }
+        for (String word : query.trim().split("\\s+")) {
+            boolean prefix = word.endsWith("*");
+            List<String> tokens = tokenize(word);
+            for (int i = 0; i < tokens.size(); i++) {
+                terms.add(QueryTerm.of(tokens.get(i), prefix && i == tokens.size() - 1, segment));
+            }
+        }
+        return terms;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private void compactIfNeeded() {
+        Segment current = segment;
+        if (current.dead >= MIN_DEAD_TO_COMPACT && current.dead > current.live) {
+            segment = current.compact();
+        }
+    }
+
+    /**
+     * One query term, over a snapshot of the postings of every indexed term it matches.
+     */
+    private static final class QueryTerm {
+        private final long[][] entries;
+        private final int[] sizes;
+        private final double[] idf;
+        private final int[] cursors;
+        private final boolean truncated;
+        // merge state of the driving term: a heap of the lists by their next document, and that document's entries
+        private int[] positions;
+        private int[] heap;
+        private int heapSize;
+        private int[] merged;
+        private int mergedCount;
+
+        private QueryTerm(List<Postings> postings, int documents, boolean truncated) {
+            this.truncated = truncated;
+            int count = postings.size();
+            entries = new long[count][];
+            sizes = new int[count];
+            idf = new double[count];
+            cursors = new int[count];
+            for (int i = 0; i < count; i++) {
+                // size first: the array read after it holds at least that many entries
+                sizes[i] = postings.get(i).size;
+                entries[i] = postings.get(i).entries;
+                // dead postings make df a slight overestimate until the next compaction
+                int df = Math.min(sizes[i], documents);
+                idf[i] = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+            }
+        }
+
+        static QueryTerm of(String token, boolean prefix, Segment segment) {
+            List<Postings> postings = new ArrayList<>();
+            boolean truncated = false;
+            if (prefix) {
+                // the most frequent expansions, which hold most of the matches; a min-heap of the best so far
+                PriorityQueue<Postings> kept = new PriorityQueue<>(Comparator.comparingInt((Postings matching) -> matching.size));
+                for (Postings matching : segment.terms.subMap(token, true, token + Character.MAX_VALUE, true).values()) {
+                    if (kept.size() < MAX_EXPANSIONS) {
+                        kept.add(matching);
+                    } else {
+                        truncated = true;
+                        if (matching.size > kept.peek().size) {
+                            kept.poll();
+                            kept.add(matching);
+                        }
+                    }
+                }
+                postings.addAll(kept);
+            } else {
+                Postings exact = segment.terms.get(token);
+                if (exact != null) {
+                    postings.add(exact);
+                }
+            }
+            return new QueryTerm(postings, Math.max(segment.live, 1), truncated);
+        }
+
+        boolean isEmpty() {
+            return entries.length == 0;
+        }
+
+        boolean isTruncated() {
+            return truncated;
+        }
+
+        long cost() {
+            long cost = 0;
+            for (int size : sizes) {
+                cost += size;
+            }
+            return cost;
+        }
+
+        /**
+         * Starts merging the postings of this term's indexed terms, to be read with {@link #nextDoc()}.
+         * Only the heads of the lists are held, so a common prefix costs no more memory than a rare one.
+         */
+        void startMerge() {
+            positions = new int[entries.length];
+            heap = new int[entries.length];
+            merged = new int[entries.length];
+            heapSize = 0;
+            for (int i = 0; i < entries.length; i++) {
+                if (sizes[i] > 0) {
+                    heap[heapSize++] = i;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(heap, heapSize, i, positions);
+            }
+        }
+
+        /**
+         * The next document matching this term, in increasing order, or -1 when there are no more.
+         */
+        int nextDoc() {
+            if (heapSize == 0) {
+                return -1;
+            }
+            int docNo = head(heap[0], positions);
+            mergedCount = 0;
+            while (heapSize > 0 && head(heap[0], positions) == docNo) {
+                int list = heap[0];
+                merged[mergedCount++] = list;
+                if (++positions[list] == sizes[list]) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, 0, positions);
+            }
+            return docNo;
+        }
+
+        /**
+         * This term's score for the document last returned by {@link #nextDoc()}.
+         */
+        double mergedScore(int length, double averageLength) {
+            double score = 0;
+            for (int i = 0; i < mergedCount; i++) {
+                int list = merged[i];
+                score += bm25(idf[list], Postings.frequency(entries[list][positions[list] - 1]), length, averageLength);
+            }
+            return score;
+        }
+
+        private void siftDown(int[] heap, int heapSize, int at, int[] positions) {
+            while (true) {
+                int smallest = at;
+                for (int child = 2 * at + 1; child <= 2 * at + 2 && child < heapSize; child++) {
+                    if (head(heap[child], positions) < head(heap[smallest], positions)) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == at) {
+                    return;
+                }
+                int swapped = heap[at];
+                heap[at] = heap[smallest];
+                heap[smallest] = swapped;
+                at = smallest;
+            }
+        }
+
+        private int head(int list, int[] positions) {
+            return Postings.docNo(entries[list][positions[list]]);
+        }
+
+        /**
+         * BM25 score of this term for {@code docNo}, 0 when it does not match.
+         * Must be called with increasing document numbers.
+         */
+        double score(int docNo, int length, double averageLength) {
+            double score = 0;
+            for (int i = 0; i < entries.length; i++) {
+                int at = Postings.seek(entries[i], sizes[i], cursors[i], docNo);
+                cursors[i] = at;
+                if (at < sizes[i] && Postings.docNo(entries[i][at]) == docNo) {
+                    score += bm25(idf[i], Postings.frequency(entries[i][at]), length, averageLength);
+                }
+            }
+            return score;
+        }
+    }
+
+    private record Doc(String id, String title, int length) {
+    }
+
+    private record Candidate(int docNo, Doc doc, double score) {
+    }
+
+    /**
+     * One generation of the index. Once published, only the thread holding the write lock modifies it.
+     */
+    private static final class Segment {
+        private final ConcurrentSkipListMap<String, Postings> terms = new ConcurrentSkipListMap<>();
+        private final ConcurrentHashMap<String, Integer> docNos = new ConcurrentHashMap<>();
+        private volatile Doc[] docs = new Doc[1024];
+        private volatile int[] lengths = new int[1024];
+        private volatile int nextDocNo;
+        private volatile int live;
+        private volatile long totalLength;
+        private int dead;
+
+        void add(String id, String title, String description) {
+            Map<String, Integer> frequencies = new HashMap<>();
+            int length = 0;
+            for (String token : tokenize(title)) {
+                frequencies.merge(token, TITLE_WEIGHT, Integer::sum);
+                length += TITLE_WEIGHT;
+            }
+            for (String token : tokenize(description)) {
+                frequencies.merge(token, 1, Integer::sum);
+                length++;
+            }
+
+            int docNo = nextDocNo;
+            if (docNo == docs.length) {
+                lengths = Arrays.copyOf(lengths, docNo * 2);
+                docs = Arrays.copyOf(docs, docNo * 2);
+            }
+            // published before the postings that point at it
+            lengths[docNo] = length;
+            Doc[] current = docs;
+            current[docNo] = new Doc(id, title, length);
+            docs = current;
+            nextDocNo = docNo + 1;
+            for (Map.Entry<String, Integer> frequency : frequencies.entrySet()) {
+                terms.computeIfAbsent(frequency.getKey(), term -> new Postings()).add(docNo, frequency.getValue());
+            }
+            docNos.put(id, docNo);
+            totalLength += length;
+            live++;
+        }
+
+        void remove(String id) {
+            Integer docNo = id == null ? null : docNos.remove(id);
+            if (docNo == null) {
+                return;
+            }
+            Doc[] current = docs;
+            totalLength -= current[docNo].length;
+            current[docNo] = null;
+            docs = current;
+            live--;
+            dead++;
+        }
+
+        /**
+         * Copies the live documents into a new segment, renumbered in their original order so postings stay sorted.
+         */
+        Segment compact() {
+            Segment compacted = new Segment();
+            Doc[] current = docs;
+            int[] renumbered = new int[nextDocNo];
+            int next = 0;
+            int capacity = Math.max(1024, Integer.highestOneBit(Math.max(live, 1)) << 1);
+            compacted.docs = new Doc[capacity];
+            compacted.lengths = new int[capacity];
+            for (int docNo = 0; docNo < nextDocNo; docNo++) {
+                Doc doc = current[docNo];
+                renumbered[docNo] = doc == null ? -1 : next;
+                if (doc != null) {
+                    compacted.docs[next] = doc;
+                    compacted.lengths[next] = doc.length;
+                    compacted.docNos.put(doc.id, next);
+                    next++;
+                }
+            }
+            for (Map.Entry<String, Postings> term : terms.entrySet()) {
+                Postings postings = term.getValue().renumber(renumbered);
+                if (postings.size > 0) {
+                    compacted.terms.put(term.getKey(), postings);
+                }
+            }
+            compacted.nextDocNo = next;
+            compacted.live = live;
+            compacted.totalLength = totalLength;
+            return compacted;
+        }
+    }
+
+    /**
+     * Documents containing one term, as {@code docNo << 32 | frequency} in increasing document number order.
+     * Appends are made by the writer only; readers take {@code size} first, then the array it applies to.
+     */
+    private static final class Postings {
+        private volatile long[] entries = new long[2];
+        private volatile int size;
+
+        static int docNo(long entry) {
+            return (int) (entry >>> 32);
+        }
+
+        static int frequency(long entry) {
+            return (int) entry;
+        }
+
+        void add(int docNo, int frequency) {
+            long[] current = entries;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[size] = ((long) docNo << 32) | frequency;
+            entries = current;
+            size = size + 1;
+        }
+
+        /**
+         * Index of the first of the {@code size} entries at or after {@code from} whose document number is at least
+         * {@code docNo}, or {@code size}. Gallops forward first, so short hops between close documents stay cheap.
+         */
+        static int seek(long[] entries, int size, int from, int docNo) {
+            int low = from;
+            int high = from;
+            int step = 1;
+            while (high < size && docNo(entries[high]) < docNo) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (docNo(entries[middle]) < docNo) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        Postings renumber(int[] renumbered) {
+            Postings postings = new Postings();
+            long[] kept = new long[Math.max(2, size)];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int docNo = renumbered[docNo(entries[i])];
+                if (docNo >= 0) {
+                    kept[count++] = ((long) docNo << 32) | frequency(entries[i]);
+                }
+            }
+            postings.entries = kept;
+            postings.size = count;
+            return postings;
+        }
+    }
+}
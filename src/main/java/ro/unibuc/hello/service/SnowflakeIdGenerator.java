@@ -0,0 +1,55 @@
+package ro.unibuc.hello.service;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time based 64-bit ids that do not collide across replicas: 41 bits of milliseconds since {@link #EPOCH},
+ * 10 bits of node id and 12 bits of sequence within the millisecond.
+ * Ids are increasing per node. When more than 4096 ids are requested in one millisecond, or the clock goes back,
+ * the generator keeps counting ahead of the clock instead of waiting for it.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    public static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private final long node;
+    private final LongSupplier clock;
+
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last id, without the node bits
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(int nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + ", got " + nodeId);
+        }
+        this.node = nodeId;
+        this.clock = clock;
+    }
+
+    @Override
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH.toEpochMilli()) << SEQUENCE_BITS;
+        long stamp = last.updateAndGet(previous -> Math.max(now, previous + 1));
+        long millis = stamp >>> SEQUENCE_BITS;
+        long sequence = stamp & ((1L << SEQUENCE_BITS) - 1);
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+    }
+
+    /**
+     * A node id derived from the host name, which Kubernetes sets to the pod name.
+     * Pod names are unique, but two of them can still hash to the same id; set {@code hello.id.node-id} explicitly when that matters.
+     */
+    public static int nodeIdFromHostname(String hostname) {
+        return Math.floorMod(hostname.hashCode(), MAX_NODE_ID + 1);
+    }
+}
@@ -0,0 +1,64 @@
+package ro.unibuc.hello.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Hands out ids from blocks reserved per stripe, so threads only touch the shared counter once per block.
+ * A thread is mapped to a stripe by its id; each stripe sits on its own cache line.
+ * Ids are unique and roughly increasing: two ids issued at about the same time differ by at most a few blocks.
+ * There is no per-thread state, so it works the same with virtual threads.
+ */
+public class StripedIdGenerator implements IdGenerator {
+
+    // longs per stripe, so two stripes never share a 128 byte line (adjacent line prefetch included)
+    private static final int PADDING = 16;
+
+    private final AtomicLong blocks = new AtomicLong();
+    private final AtomicLongArray stripes;
+    private final int mask;
+    private final long blockSize;
+
+    /**
+     * @param stripes   rounded up to a power of two
+     * @param blockSize ids reserved at a time by a stripe
+     */
+    public StripedIdGenerator(int stripes, int blockSize) {
+        if (stripes < 1 || blockSize < 1) {
+            throw new IllegalArgumentException("stripes and block size must be positive");
+        }
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new AtomicLongArray(size * PADDING);
+        this.mask = size - 1;
+        this.blockSize = blockSize;
+    }
+
+    public StripedIdGenerator() {
+        this(Runtime.getRuntime().availableProcessors() * 2, 1024);
+    }
+
+    @Override
+    public long nextId() {
+        int slot = stripe() * PADDING;
+        for (;;) {
+            // a slot holds the last id it issued, 0 before its first block
+            long last = stripes.get(slot);
+            long next;
+            if (last != 0 && last % blockSize != 0) {
+                next = last + 1;
+            } else {
+                // block exhausted: reserve a fresh one; if another thread refilled the slot first, the block is skipped
+                next = blocks.getAndIncrement() * blockSize + 1;
+            }
+            if (stripes.compareAndSet(slot, last, next)) {
+                return next;
+            }
+        }
+    }
+
+    private int stripe() {
+        long threadId = Thread.currentThread().threadId();
+        // spread sequential thread ids, which would otherwise cluster on neighbouring stripes
+        return (int) ((threadId * 0x9E3779B97F4A7C15L) >>> 40) & mask;
+    }
+}
@@ -0,0 +1,155 @@
+package ro.unibuc.hello.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import ro.unibuc.hello.service.AdaptiveConcurrencyLimiter;
+import ro.unibuc.hello.service.ClientRateLimiter;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testClientOverItsRateGets429() throws Exception {
+        // Arrange
+        AdmissionFilter filter = filter(new ClientRateLimiter(1, 2, 100), limiter(10), 100);
+
+        // Act
+        MockHttpServletResponse first = call(filter, "key-1");
+        MockHttpServletResponse second = call(filter, "key-1");
+        MockHttpServletResponse third = call(filter, "key-1");
+        MockHttpServletResponse otherClient = call(filter, "key-2");
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals("1", third.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, otherClient.getStatus());
+        assertEquals(1, meterRegistry.get("hello.admission.rejected")
+                .tag("reason", AdmissionFilter.RATE_LIMIT)
+                .tag("client", "key:alice")
+                .counter().count());
+    }
+
+    @Test
+    void testRequestOverTheConcurrencyLimitGets429() throws Exception {
+        // Arrange
+        AdaptiveConcurrencyLimiter concurrencyLimiter = limiter(1);
+        AdmissionFilter filter = filter(new ClientRateLimiter(100, 100, 100), concurrencyLimiter, 100);
+        long held = concurrencyLimiter.tryAcquire();
+
+        // Act
+        MockHttpServletResponse refused = call(filter, null);
+        concurrencyLimiter.release(held, false);
+        MockHttpServletResponse admitted = call(filter, null);
+
+        // Assert
+        assertEquals(429, refused.getStatus());
+        assertNotNull(refused.getHeader(HttpHeaders.RETRY_AFTER));
+        assertEquals(200, admitted.getStatus());
+        assertEquals(0, concurrencyLimiter.inFlight());
+        assertEquals(1, meterRegistry.get("hello.admission.rejected")
+                .tag("reason", AdmissionFilter.CONCURRENCY)
+                .tag("client", "ip:127.0.0.1")
+                .counter().count());
+    }
+
+    @Test
+    void testUnknownKeysAreLimitedByAddress() throws Exception {
+        // Arrange
+        AdmissionFilter filter = filter(new ClientRateLimiter(1, 2, 100), limiter(10), 100);
+
+        // Act
+        MockHttpServletResponse first = call(filter, "rotating-1");
+        MockHttpServletResponse second = call(filter, "rotating-2");
+        MockHttpServletResponse third = call(filter, "rotating-3");
+
+        // Assert
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals(1, meterRegistry.get("hello.admission.rejected")
+                .tag("client", "ip:127.0.0.1")
+                .counter().count());
+        assertTrue(meterRegistry.find("hello.admission.rejected").tag("client", "key:rotating-3").counters().isEmpty());
+    }
+
+    @Test
+    void testClientTagsAreBounded() throws Exception {
+        // Arrange
+        AdmissionFilter filter = filter(new ClientRateLimiter(1, 1, 100), limiter(10), 1);
+
+        // Act
+        for (String client : new String[]{"a", "b", "c"}) {
+            call(filter, client);
+            call(filter, client);
+        }
+
+        // Assert
+        assertEquals(1, meterRegistry.get("hello.admission.rejected").tag("client", "key:client-a").counter().count());
+        assertEquals(2, meterRegistry.get("hello.admission.rejected")
+                .tag("client", AdmissionFilter.OTHER_CLIENTS)
+                .counter().count());
+    }
+
+    @Test
+    void testSlowByDesignRoutesDoNotLowerTheLimit() throws Exception {
+        // Arrange
+        AdaptiveConcurrencyLimiter concurrencyLimiter =
+                new AdaptiveConcurrencyLimiter(10, 1, 10, Duration.ofMillis(1), 0.5);
+        AdmissionFilter filter = filter(new ClientRateLimiter(100, 100, 100), concurrencyLimiter, 100);
+        FilterChain slowChain = (request, response) -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        // Act
+        call(filter, "POST", "/greetings/batch", slowChain);
+        call(filter, "GET", "/greetings", slowChain);
+        call(filter, "PUT", "/greetings/1", slowChain);
+        int afterSlowRoutes = concurrencyLimiter.limit();
+        call(filter, "GET", "/info", slowChain);
+
+        // Assert
+        assertEquals(10, afterSlowRoutes);
+        assertEquals(5, concurrencyLimiter.limit());
+    }
+
+    private AdmissionFilter filter(ClientRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter, int maxTaggedClients) {
+        Map<String, String> clientsByKey = Map.of("key-1", "alice", "key-2", "bob",
+                "a", "client-a", "b", "client-b", "c", "client-c");
+        return new AdmissionFilter(rateLimiter, concurrencyLimiter, "X-API-Key", clientsByKey, maxTaggedClients, meterRegistry);
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int limit) {
+        return new AdaptiveConcurrencyLimiter(limit, 1, limit, Duration.ofSeconds(1), 0.9);
+    }
+
+    private static void call(AdmissionFilter filter, String method, String path, FilterChain chain) throws Exception {
+        filter.doFilter(new MockHttpServletRequest(method, path), new MockHttpServletResponse(), chain);
+    }
+
+    private static MockHttpServletResponse call(AdmissionFilter filter, String apiKey) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/greetings");
+        if (apiKey != null) {
+            request.addHeader("X-API-Key", apiKey);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -27,7 +27,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 
-@SpringBootTest
+@SpringBootTest(properties = "info.seed.enabled=false")
 @AutoConfigureMockMvc
 @Testcontainers
 @Tag("IntegrationTest")
@@ -133,4 +133,40 @@ public class GreetingsControllerIntegrationTest {
                 .andExpect(jsonPath("$.length()").value(1))
                 .andExpect(jsonPath("$[0].content").value("Hello 2"));
     }
+
+    @Test
+    public void testCreateGreetingsBatch() throws Exception {
+        mockMvc.perform(post("/greetings/batch")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{\"id\":\"1\",\"content\":\"Hello Batch\"}\n{\"id\":\"3\",\"content\":\"Hello 3\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.updated").value(1))
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("UPDATED"))
+                .andExpect(jsonPath("$.items[1].status").value("INSERTED"));
+
+        mockMvc.perform(get("/greetings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].content").value("Hello Batch"));
+    }
+
+    @Test
+    public void testPagesCrossFromStringToObjectIds() throws Exception {
+        String objectId = "65f1c0ffee0000000000000a";
+        greetingsService.saveGreeting(new Greeting(objectId, "Hello 3"));
+
+        String first = mockMvc.perform(get("/greetings").param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(2))
+                .andExpect(jsonPath("$.items[1].id").value("2"))
+                .andReturn().getResponse().getContentAsString();
+        String next = new ObjectMapper().readTree(first).get("next").asText();
+
+        mockMvc.perform(get("/greetings").param("size", "2").param("after", next))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].id").value(objectId))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
 }
@@ -1,21 +1,58 @@
 package ro.unibuc.hello.controller;
  
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import ro.unibuc.hello.dto.BatchItemResult;
+import ro.unibuc.hello.dto.BatchResult;
 import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.dto.GreetingPage;
+import ro.unibuc.hello.dto.InfoBatch;
+import ro.unibuc.hello.dto.SearchHit;
+import ro.unibuc.hello.dto.SearchResults;
 import ro.unibuc.hello.exception.EntityNotFoundException;
+import ro.unibuc.hello.exception.WriteBacklogFullException;
+import ro.unibuc.hello.service.DataVersion;
+import ro.unibuc.hello.service.GreetingWriteBehind;
+import ro.unibuc.hello.service.GreetingsBodyCache;
+import ro.unibuc.hello.service.GreetingsMetrics;
 import ro.unibuc.hello.service.GreetingsService;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 import static org.junit.Assert.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -27,6 +64,20 @@ class GreetingsControllerTest {
     @Mock
     private GreetingsService greetingsService;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private DataVersion dataVersion = new DataVersion();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private GreetingsMetrics greetingsMetrics = new GreetingsMetrics(meterRegistry);
+
+    @Spy
+    private GreetingsBodyCache greetingsBodyCache = new GreetingsBodyCache(true, true, DataSize.ofBytes(0), Duration.ofSeconds(5), meterRegistry);
+
     @InjectMocks
     private GreetingsController greetingsController;
 
@@ -49,9 +100,47 @@ class GreetingsControllerTest {
                .andExpect(status().isOk())
                .andExpect(jsonPath("$.id").value("1"))
                .andExpect(jsonPath("$.content").value("Hello, there!"));
+        assertEquals(1, meterRegistry.get("hello.greeting.count").counter().count());
     }
     
 
+    @Test
+    void test_sayHello_directWrite() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(greetingsController, "helloDirectWrite", true);
+        byte[] body = "{\"id\":\"1\",\"content\":\"Hello, there!\"}".getBytes(StandardCharsets.UTF_8);
+        doAnswer(invocation -> {
+            invocation.<IntConsumer>getArgument(1).accept(body.length);
+            invocation.<OutputStream>getArgument(2).write(body);
+            return null;
+        }).when(greetingsService).writeHello(eq("there"), any(IntConsumer.class), any(OutputStream.class));
+
+        // Act & Assert
+        mockMvc.perform(get("/hello-world?name=there"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+               .andExpect(jsonPath("$.id").value("1"))
+               .andExpect(jsonPath("$.content").value("Hello, there!"));
+        verify(greetingsService, never()).hello(anyString());
+    }
+
+    @Test
+    void test_sayHello_directWriteSkippedForBinaryAccept() throws Exception {
+        // Arrange
+        ReflectionTestUtils.setField(greetingsController, "helloDirectWrite", true);
+        when(greetingsService.hello("there")).thenReturn(new Greeting("1", "Hello, there!"));
+
+        // Act
+        byte[] body = mockMvc.perform(get("/hello-world?name=there").accept("application/cbor, */*"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType("application/cbor"))
+               .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        assertEquals("Hello, there!", new CBORMapper().readValue(body, Greeting.class).getContent());
+        verify(greetingsService, never()).writeHello(anyString(), any(IntConsumer.class), any(OutputStream.class));
+    }
+
     @Test
     void test_info() throws Exception {
         // Arrange
@@ -63,6 +152,8 @@ class GreetingsControllerTest {
                .andExpect(status().isOk())
                .andExpect(jsonPath("$.id").value("1"))
                .andExpect(jsonPath("$.content").value("there : some description"));
+        assertEquals(1, meterRegistry.get("hello.info.count").tag("outcome", "found").counter().count());
+        assertEquals(1, meterRegistry.get("hello.info.time").tag("outcome", "found").timer().count());
     }    
 
     @Test
@@ -74,11 +165,44 @@ class GreetingsControllerTest {
         // Act
         EntityNotFoundException exception = assertThrows(
                 EntityNotFoundException.class,
-                () -> greetingsController.info(title),
+                () -> greetingsController.info(title, new ServletWebRequest(new MockHttpServletRequest()), new MockHttpServletResponse()),
                 "Expected info() to throw EntityNotFoundException, but it didn't");
 
         // Assert
         assertTrue(exception.getMessage().contains(title));
+        assertEquals(1, meterRegistry.get("hello.info.count").tag("outcome", "not_found").counter().count());
+        assertEquals(0, meterRegistry.get("hello.info.count").tag("outcome", "found").counter().count());
+    }
+
+    @Test
+    void test_infoBatch() throws Exception {
+        // Arrange
+        Map<String, Greeting> found = new LinkedHashMap<>();
+        found.put("there", new Greeting("1", "there : some description"));
+        when(greetingsService.buildGreetingsFromInfo(List.of("there", "nowhere")))
+                .thenReturn(new InfoBatch(found, List.of("nowhere")));
+
+        // Act & Assert
+        mockMvc.perform(post("/info/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"there\", \"nowhere\"]"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.found.there.content").value("there : some description"))
+            .andExpect(jsonPath("$.missing[0]").value("nowhere"));
+    }
+
+    @Test
+    void test_searchInfo() throws Exception {
+        // Arrange
+        when(greetingsService.searchInfo("stor*", 1, 5))
+                .thenReturn(new SearchResults(6, List.of(new SearchHit("6", "Storage", 1.5))));
+
+        // Act & Assert
+        mockMvc.perform(get("/info/search").param("q", "stor*").param("page", "1").param("size", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.total").value(6))
+            .andExpect(jsonPath("$.hits[0].id").value("6"))
+            .andExpect(jsonPath("$.hits[0].title").value("Storage"));
     }
 
     @Test
@@ -96,6 +220,75 @@ class GreetingsControllerTest {
             .andExpect(jsonPath("$[1].content").value("Hi"));
     }
 
+    @Test
+    void test_getAllGreetings_fromSnapshot() throws Exception {
+        // Arrange
+        byte[] json = "[{\"id\":\"1\",\"content\":\"Hello\"}]".getBytes(StandardCharsets.UTF_8);
+        when(greetingsService.getAllGreetingsJson()).thenReturn(Optional.of(json));
+
+        // Act & Assert
+        mockMvc.perform(get("/greetings"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+            .andExpect(content().bytes(json));
+        verify(greetingsService, never()).getAllGreetings();
+    }
+
+    @Test
+    void test_getAllGreetings_encodedOncePerVersion() throws Exception {
+        // Arrange
+        when(greetingsService.getAllGreetings()).thenReturn(List.of(new Greeting("1", "Hello")));
+
+        // Act
+        mockMvc.perform(get("/greetings")).andExpect(status().isOk());
+        mockMvc.perform(get("/greetings"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].content").value("Hello"));
+        dataVersion.bump();
+        mockMvc.perform(get("/greetings")).andExpect(status().isOk());
+
+        // Assert
+        verify(greetingsService, times(2)).getAllGreetings();
+        assertEquals(1, meterRegistry.get("greetings.body.cache").tag("result", "hit").counter().count());
+    }
+
+    @Test
+    void test_getAllGreetings_gzipped() throws Exception {
+        // Arrange
+        when(greetingsService.getAllGreetings()).thenReturn(List.of(new Greeting("1", "Hello")));
+
+        // Act
+        MockHttpServletResponse response = mockMvc.perform(get("/greetings").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().stringValues(HttpHeaders.VARY, HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING))
+            .andReturn().getResponse();
+
+        // Assert
+        try (GZIPInputStream body = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+            assertEquals("[{\"id\":\"1\",\"content\":\"Hello\"}]", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        mockMvc.perform(get("/greetings").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(jsonPath("$[0].content").value("Hello"));
+    }
+
+    @Test
+    void test_getAllGreetings_gzippedEtagIsWeak() throws Exception {
+        // Arrange
+        when(greetingsService.getAllGreetings()).thenReturn(List.of(new Greeting("1", "Hello")));
+
+        // Act
+        String etag = mockMvc.perform(get("/greetings").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        assertTrue(etag.startsWith("W/"));
+        mockMvc.perform(get("/greetings").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+    }
+
     @Test
     void test_createGreeting() throws Exception {
         // Arrange
@@ -111,6 +304,37 @@ class GreetingsControllerTest {
                .andExpect(jsonPath("$.content").value("Hello, World!"));
     }
     
+    @Test
+    void test_createGreeting_WriteBehind() throws Exception {
+        // Arrange
+        GreetingWriteBehind writeBehind = mock(GreetingWriteBehind.class);
+        ReflectionTestUtils.setField(greetingsController, "greetingWriteBehind", writeBehind);
+        when(writeBehind.accept(any(Greeting.class))).thenReturn(new Greeting("abc", "Hello, World!"));
+
+        // Act & Assert
+        mockMvc.perform(post("/greetings")
+               .content("{\"content\":\"Hello, World!\"}")
+               .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isAccepted())
+               .andExpect(jsonPath("$.id").value("abc"));
+        verify(greetingsService, never()).saveGreeting(any());
+    }
+
+    @Test
+    void test_createGreeting_WriteBacklogFull() throws Exception {
+        // Arrange
+        GreetingWriteBehind writeBehind = mock(GreetingWriteBehind.class);
+        ReflectionTestUtils.setField(greetingsController, "greetingWriteBehind", writeBehind);
+        when(writeBehind.accept(any(Greeting.class))).thenThrow(new WriteBacklogFullException(10, 3));
+
+        // Act & Assert
+        mockMvc.perform(post("/greetings")
+               .content("{\"content\":\"Hello, World!\"}")
+               .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isServiceUnavailable())
+               .andExpect(header().string(HttpHeaders.RETRY_AFTER, "3"));
+    }
+
     @Test
     void test_updateGreeting() throws Exception {
         // Arrange
@@ -127,6 +351,18 @@ class GreetingsControllerTest {
                .andExpect(jsonPath("$.content").value("Updated Greeting"));
     }
     
+    @Test
+    void test_updateGreeting_countsNotFound() {
+        // Arrange
+        String id = "missing";
+        Greeting greeting = new Greeting(id, "Updated Greeting");
+        when(greetingsService.updateGreeting(id, greeting)).thenThrow(new EntityNotFoundException(id));
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> greetingsController.updateGreeting(id, greeting));
+        assertEquals(1, meterRegistry.get("hello.entity.not.found").tag("operation", "update").counter().count());
+    }
+
     @Test
     void test_deleteGreeting() throws Exception {
         String id = "1";
@@ -151,4 +387,199 @@ class GreetingsControllerTest {
                .andExpect(jsonPath("$").isEmpty());
     }
     
+    @Test
+    void test_getAllGreetings_binaryFormats() throws Exception {
+        // Arrange
+        List<Greeting> greetings = Arrays.asList(new Greeting("1", "Hello"), new Greeting("2", "Hi"));
+        when(greetingsService.getAllGreetings()).thenReturn(greetings);
+
+        // Act
+        byte[] cbor = mockMvc.perform(get("/greetings").accept("application/cbor"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/cbor"))
+            .andReturn().getResponse().getContentAsByteArray();
+        byte[] smile = mockMvc.perform(get("/greetings").accept("application/x-jackson-smile"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("application/x-jackson-smile"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert
+        assertEquals("Hi", new CBORMapper().readValue(cbor, Greeting[].class)[1].getContent());
+        assertEquals("Hi", new SmileMapper().readValue(smile, Greeting[].class)[1].getContent());
+    }
+
+    @Test
+    void test_getAllGreetings_notModified() throws Exception {
+        // Arrange
+        when(greetingsService.getAllGreetings()).thenReturn(List.of(new Greeting("1", "Hello")));
+        String etag = mockMvc.perform(get("/greetings"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/greetings").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+        verify(greetingsService, times(1)).getAllGreetings();
+    }
+
+    @Test
+    void test_getAllGreetings_etagIsWeakAndPerFormat() throws Exception {
+        // Arrange
+        when(greetingsService.getAllGreetings()).thenReturn(List.of(new Greeting("1", "Hello")));
+
+        // Act
+        MockHttpServletResponse json = mockMvc.perform(get("/greetings"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse();
+        String cborEtag = mockMvc.perform(get("/greetings").accept("application/cbor"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        String jsonEtag = json.getHeader(HttpHeaders.ETAG);
+        assertTrue(jsonEtag.startsWith("W/"));
+        assertTrue(cborEtag.startsWith("W/"));
+        assertNotEquals(jsonEtag, cborEtag);
+        assertEquals(HttpHeaders.ACCEPT, json.getHeader(HttpHeaders.VARY));
+        mockMvc.perform(get("/greetings").accept("application/cbor").header(HttpHeaders.IF_NONE_MATCH, jsonEtag))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/greetings").accept("application/cbor").header(HttpHeaders.IF_NONE_MATCH, cborEtag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void test_getAllGreetings_modifiedAfterWrite() throws Exception {
+        // Arrange
+        when(greetingsService.getAllGreetings()).thenReturn(List.of(new Greeting("1", "Hello")));
+        String etag = mockMvc.perform(get("/greetings"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        dataVersion.bump();
+
+        // Act & Assert
+        mockMvc.perform(get("/greetings").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].content").value("Hello"));
+    }
+
+    @Test
+    void test_info_notModified() throws Exception {
+        // Arrange
+        when(greetingsService.buildGreetingFromInfo("there")).thenReturn(new Greeting("1", "there : some description"));
+        String etag = mockMvc.perform(get("/info?title=there"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        assertTrue(etag.startsWith("W/"));
+        mockMvc.perform(get("/info?title=there").header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+        verify(greetingsService, times(1)).buildGreetingFromInfo("there");
+    }
+
+    @Test
+    void test_getGreetingsPage() throws Exception {
+        // Arrange
+        GreetingPage page = new GreetingPage(List.of(new Greeting("1", "Hello")), "MQ");
+        when(greetingsService.getGreetingsPage(1, null)).thenReturn(page);
+
+        // Act & Assert
+        mockMvc.perform(get("/greetings?size=1"))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.items[0].id").value("1"))
+               .andExpect(jsonPath("$.items[0].content").value("Hello"))
+               .andExpect(jsonPath("$.next").value("MQ"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void test_streamGreetings() throws Exception {
+        // Arrange
+        doAnswer(invocation -> {
+            Consumer<Greeting> action = invocation.getArgument(0);
+            action.accept(new Greeting("1", "Hello"));
+            action.accept(new Greeting("2", "Hi"));
+            return null;
+        }).when(greetingsService).forEachGreeting(any(Consumer.class));
+
+        // Act
+        MvcResult result = mockMvc.perform(get("/greetings/stream"))
+               .andExpect(request().asyncStarted())
+               .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+               .andExpect(content().string("{\"id\":\"1\",\"content\":\"Hello\"}\n{\"id\":\"2\",\"content\":\"Hi\"}\n"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void test_createGreetings() throws Exception {
+        // Arrange
+        List<Greeting> received = new ArrayList<>();
+        when(greetingsService.ingestGreetings(any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<Greeting> greetings = invocation.getArgument(0);
+            BatchResult result = new BatchResult();
+            while (greetings.hasNext()) {
+                Greeting greeting = greetings.next();
+                received.add(greeting);
+                result.add(new BatchItemResult(received.size() - 1, greeting.getId(), BatchItemResult.Status.INSERTED, null));
+            }
+            return result;
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/greetings/batch")
+               .content("{\"id\":\"1\",\"content\":\"Hello\"}\n{\"id\":\"2\",\"content\":\"Hi\"}\n")
+               .contentType(MediaType.APPLICATION_NDJSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.inserted").value(2))
+               .andExpect(jsonPath("$.items[1].id").value("2"))
+               .andExpect(jsonPath("$.items[1].status").value("INSERTED"));
+
+        mockMvc.perform(post("/greetings/batch")
+               .content("[{\"id\":\"3\",\"content\":\"Hey\"}]")
+               .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.inserted").value(1));
+
+        assertTrue(received.size() == 3 && "Hey".equals(received.get(2).getContent()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void test_createGreetings_malformedItem() throws Exception {
+        // Arrange
+        List<Greeting> received = new ArrayList<>();
+        when(greetingsService.ingestGreetings(any(Iterator.class))).thenAnswer(invocation -> {
+            Iterator<Greeting> greetings = invocation.getArgument(0);
+            while (greetings.hasNext()) {
+                received.add(greetings.next());
+            }
+            return new BatchResult();
+        });
+
+        // Act & Assert
+        mockMvc.perform(post("/greetings/batch")
+               .content("{\"id\":\"1\",\"content\":\"Hello\"}\n{\"id\":")
+               .contentType(MediaType.APPLICATION_NDJSON))
+               .andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.error").value("Batch item 1 could not be read"));
+        mockMvc.perform(post("/greetings/batch")
+               .content("[{\"id\":")
+               .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.error").value("Batch item 0 could not be read"));
+        mockMvc.perform(post("/greetings/batch")
+               .content("not json")
+               .contentType(MediaType.APPLICATION_JSON))
+               .andExpect(status().isBadRequest())
+               .andExpect(jsonPath("$.error").value("Batch item 0 could not be read"));
+
+        assertEquals(1, received.size());
+    }
+
 }
@@ -0,0 +1,89 @@
+package ro.unibuc.hello.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.service.ReactiveGreetingsService;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class GreetingsRouterTest {
+
+    @Mock
+    private ReactiveGreetingsService greetingsService;
+
+    @InjectMocks
+    private GreetingsHandler greetingsHandler;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        webTestClient = WebTestClient.bindToRouterFunction(new GreetingsRouter().greetingsRoutes(greetingsHandler)).build();
+    }
+
+    @Test
+    void test_info() {
+        // Arrange
+        when(greetingsService.buildGreetingFromInfo("there")).thenReturn(Mono.just(new Greeting("1", "there : some description")));
+
+        // Act & Assert
+        webTestClient.get().uri("/info?title=there")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo("1")
+                .jsonPath("$.content").isEqualTo("there : some description");
+    }
+
+    @Test
+    void test_getAllGreetings() {
+        // Arrange
+        when(greetingsService.getAllGreetings()).thenReturn(Flux.just(new Greeting("1", "Hello"), new Greeting("2", "Hi")));
+
+        // Act & Assert
+        webTestClient.get().uri("/greetings")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$[0].content").isEqualTo("Hello")
+                .jsonPath("$[1].content").isEqualTo("Hi");
+    }
+
+    @Test
+    void test_updateGreeting() {
+        // Arrange
+        when(greetingsService.updateGreeting(eq("1"), any(Greeting.class))).thenReturn(Mono.just(new Greeting("1", "Updated Greeting")));
+
+        // Act & Assert
+        webTestClient.put().uri("/greetings/{id}", "1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"content\":\"Updated Greeting\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content").isEqualTo("Updated Greeting");
+    }
+
+    @Test
+    void test_deleteGreeting() {
+        // Arrange
+        when(greetingsService.deleteGreeting("1")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        webTestClient.delete().uri("/greetings/{id}", "1")
+                .exchange()
+                .expectStatus().isOk();
+        verify(greetingsService, times(1)).deleteGreeting("1");
+    }
+}
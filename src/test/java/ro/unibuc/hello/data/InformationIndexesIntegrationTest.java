@@ -0,0 +1,117 @@
+package ro.unibuc.hello.data;
+
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "info.seed.enabled=false")
+@Testcontainers
+@Tag("IntegrationTest")
+public class InformationIndexesIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        final String MONGO_URL = "mongodb://localhost:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+    }
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    private InformationIndexes indexes;
+
+    @BeforeEach
+    public void createCollection() {
+        mongoTemplate.dropCollection(InformationEntity.class);
+        mongoTemplate.insert(new InformationEntity("Overview", "Intro"));
+        indexes = new InformationIndexes(mongoTemplate);
+    }
+
+    @Test
+    public void testDeclaredIndexesAreCreated() {
+        // Act
+        indexes.ensureIndexes(false);
+
+        // Assert
+        assertFalse(index("title").orElseThrow().isUnique());
+        assertTrue(index("description").isPresent());
+        assertTrue(indexes.findCollectionScans().isEmpty());
+    }
+
+    @Test
+    public void testMissingIndexIsReportedAsCollectionScan() {
+        // Arrange
+        indexes.ensureIndexes(false);
+        mongoTemplate.indexOps(InformationEntity.class).dropIndex("description");
+
+        // Act
+        List<String> collectionScans = indexes.findCollectionScans();
+
+        // Assert
+        assertEquals(List.of("findByDescription"), collectionScans);
+    }
+
+    @Test
+    public void testTitleUniqueCanBeSwitchedOnAndOff() {
+        // Arrange
+        indexes.ensureIndexes(false);
+
+        // Act
+        indexes.ensureIndexes(true);
+        boolean uniqueAfterSwitchingOn = index("title").orElseThrow().isUnique();
+        indexes.ensureIndexes(false);
+
+        // Assert
+        assertTrue(uniqueAfterSwitchingOn);
+        assertFalse(index("title").orElseThrow().isUnique());
+    }
+
+    @Test
+    public void testRepeatedTitlesKeepTheNonUniqueIndex() {
+        // Arrange
+        indexes.ensureIndexes(false);
+        mongoTemplate.insert(new InformationEntity("Overview", "Again"));
+
+        // Act
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> indexes.ensureIndexes(true));
+
+        // Assert
+        assertTrue(exception.getMessage().contains("title"));
+        assertFalse(index("title").orElseThrow().isUnique());
+    }
+
+    private Optional<IndexInfo> index(String name) {
+        return mongoTemplate.indexOps(InformationEntity.class).getIndexInfo().stream()
+                .filter(index -> index.getName().equals(name))
+                .findFirst();
+    }
+}
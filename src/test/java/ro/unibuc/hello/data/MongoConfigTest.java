@@ -0,0 +1,87 @@
+package ro.unibuc.hello.data;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.ReadPreference;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsCommandListener;
+import io.micrometer.core.instrument.binder.mongodb.MongoMetricsConnectionPoolListener;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoConfigTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void testClientPropertiesAreApplied() {
+        // Arrange
+        MongoClientProperties properties = new MongoClientProperties();
+        properties.setMaxPoolSize(200);
+        properties.setMinPoolSize(10);
+        properties.setMaxWaitTime(Duration.ofMillis(500));
+        properties.setMaxConnectionIdleTime(Duration.ofMinutes(1));
+        properties.setMaxConnectionLifeTime(Duration.ofMinutes(30));
+        properties.setConnectTimeout(Duration.ofSeconds(2));
+        properties.setReadTimeout(Duration.ofSeconds(3));
+        properties.setReadPreference("secondaryPreferred");
+        properties.setCompressors(List.of("zlib"));
+
+        // Act
+        MongoClientSettings settings = MongoConfig.clientSettings("mongodb://localhost:27017", properties, meterRegistry);
+
+        // Assert
+        assertEquals(200, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(10, settings.getConnectionPoolSettings().getMinSize());
+        assertEquals(500, settings.getConnectionPoolSettings().getMaxWaitTime(TimeUnit.MILLISECONDS));
+        assertEquals(60_000, settings.getConnectionPoolSettings().getMaxConnectionIdleTime(TimeUnit.MILLISECONDS));
+        assertEquals(1_800_000, settings.getConnectionPoolSettings().getMaxConnectionLifeTime(TimeUnit.MILLISECONDS));
+        assertEquals(2_000, settings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(3_000, settings.getSocketSettings().getReadTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(ReadPreference.secondaryPreferred(), settings.getReadPreference());
+        assertEquals(List.of(MongoCompressor.createZlibCompressor().getName()),
+                settings.getCompressorList().stream().map(MongoCompressor::getName).toList());
+    }
+
+    @Test
+    void testUnsetPropertiesKeepTheConnectionString() {
+        // Act
+        MongoClientSettings settings = MongoConfig.clientSettings("mongodb://localhost:27017/?maxPoolSize=7&connectTimeoutMS=1500",
+                new MongoClientProperties(), meterRegistry);
+
+        // Assert
+        assertEquals(7, settings.getConnectionPoolSettings().getMaxSize());
+        assertEquals(1_500, settings.getSocketSettings().getConnectTimeout(TimeUnit.MILLISECONDS));
+        assertEquals(ReadPreference.primary(), settings.getReadPreference());
+    }
+
+    @Test
+    void testPoolAndCommandMetricsAreRegistered() {
+        // Act
+        MongoClientSettings settings = MongoConfig.clientSettings("mongodb://localhost:27017", new MongoClientProperties(), meterRegistry);
+
+        // Assert
+        assertTrue(settings.getConnectionPoolSettings().getConnectionPoolListeners().stream()
+                .anyMatch(MongoMetricsConnectionPoolListener.class::isInstance));
+        assertTrue(settings.getConnectionPoolSettings().getConnectionPoolListeners().stream()
+                .anyMatch(MongoPoolCheckoutListener.class::isInstance));
+        assertTrue(settings.getCommandListeners().stream().anyMatch(MongoMetricsCommandListener.class::isInstance));
+        assertNotNull(meterRegistry.find("mongodb.driver.pool.checkout").tag("outcome", "success").timer());
+    }
+
+    @Test
+    void testUnknownCompressorIsRejected() {
+        // Arrange
+        MongoClientProperties properties = new MongoClientProperties();
+        properties.setCompressors(List.of("lz4"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> MongoConfig.clientSettings("mongodb://localhost:27017", properties, meterRegistry));
+    }
+}
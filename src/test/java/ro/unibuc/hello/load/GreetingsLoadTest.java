@@ -0,0 +1,349 @@
+package ro.unibuc.hello.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.service.GreetingsService;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Mixed workload over every {@code GreetingsController} endpoint, against the real application and a Mongo container.
+ * <p>
+ * Requests arrive at a fixed rate whether or not earlier ones have completed (an open loop), and each latency is
+ * measured from the time its request was due, so a stalled server shows up in the percentiles instead of slowing the
+ * load down. Latencies go into one HdrHistogram per operation. The report is written as JSON, named after the commit,
+ * and each operation's p99 is compared with the baseline report when there is one; {@code loadTest.requireBaseline}
+ * makes a missing one fail the run, and {@code loadTest.recordBaseline} replaces it with this run's report.
+ * Admission control is switched off, since all the load comes from one client.
+ * Run with {@code ./gradlew loadTest}; the {@code loadTest.*} properties are described in documentation/performance.md.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {"info.seed.enabled=false", "hello.admission.enabled=false", "info.search.enabled=true"})
+@Testcontainers
+@Tag("LoadTest")
+public class GreetingsLoadTest {
+
+    private static final int SEEDED_GREETINGS = 1000;
+    private static final String[] TOPICS = {"storage", "latency", "throughput", "caching", "indexes"};
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(1);
+    // p99 differences below this are noise, whatever the ratio
+    private static final double MIN_REGRESSION_MS = 1.0;
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        final String MONGO_URL = "mongodb://localhost:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private GreetingsService greetingsService;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+
+    // greetings created by the load, the only ones it deletes, so reads of seeded greetings keep finding them
+    private final ConcurrentLinkedQueue<String> created = new ConcurrentLinkedQueue<>();
+    private final AtomicLong createdCount = new AtomicLong();
+
+    private enum Operation {
+        HELLO(false, 20),
+        INFO(false, 25),
+        INFO_BATCH(false, 5),
+        INFO_SEARCH(false, 10),
+        GREETINGS_ALL(false, 2),
+        GREETINGS_PAGE(false, 15),
+        GREETINGS_STREAM(false, 1),
+        CREATE(true, 50),
+        CREATE_BATCH(true, 10),
+        UPDATE(true, 25),
+        DELETE(true, 15);
+
+        final boolean write;
+        final int weight;
+
+        Operation(boolean write, int weight) {
+            this.write = write;
+            this.weight = weight;
+        }
+    }
+
+    private static final class Stats {
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3);
+        private final AtomicLong errors = new AtomicLong();
+    }
+
+    @Test
+    public void testMixedWorkload() throws Exception {
+        int rate = Integer.getInteger("loadTest.rate", 200);
+        Duration warmup = Duration.parse(System.getProperty("loadTest.warmup", "PT10S"));
+        Duration duration = Duration.parse(System.getProperty("loadTest.duration", "PT30S"));
+        double readRatio = Double.parseDouble(System.getProperty("loadTest.readRatio", "0.9"));
+        double maxRegression = Double.parseDouble(System.getProperty("loadTest.maxP99Regression", "0.2"));
+        Path reportDirectory = Path.of(System.getProperty("loadTest.reportDir", "build/reports/load"));
+        Path baseline = Path.of(System.getProperty("loadTest.baseline", "load-baseline.json"));
+        String commit = System.getProperty("loadTest.commit", "local");
+        boolean requireBaseline = Boolean.getBoolean("loadTest.requireBaseline");
+        boolean recordBaseline = Boolean.getBoolean("loadTest.recordBaseline");
+
+        // Arrange
+        seed();
+        Map<Operation, Stats> stats = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new Stats());
+        }
+
+        // Act
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService requests = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long due = start; due < end; due += interval) {
+                LockSupport.parkNanos(due - System.nanoTime());
+                Operation operation = pick(readRatio);
+                long dueAt = due;
+                requests.submit(() -> {
+                    boolean ok = call(operation);
+                    if (dueAt >= measureFrom) {
+                        Stats operationStats = stats.get(operation);
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueAt);
+                        operationStats.latencies.recordValue(Math.min(micros, HIGHEST_LATENCY_MICROS));
+                        if (!ok) {
+                            operationStats.errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+        }
+
+        // Assert
+        ObjectNode report = report(stats, duration, commit, rate, warmup, readRatio);
+        Files.createDirectories(reportDirectory);
+        Path reportFile = reportDirectory.resolve("load-" + commit + ".json");
+        objectMapper.writeValue(reportFile.toFile(), report);
+        System.out.println(objectMapper.writeValueAsString(report.get("operations")));
+        System.out.println("Load test report written to " + reportFile.toAbsolutePath());
+
+        long requests = report.get("total").get("count").asLong();
+        long errors = report.get("total").get("errors").asLong();
+        assertTrue(errors <= requests / 100, errors + " of " + requests + " requests failed");
+        if (recordBaseline) {
+            Files.copy(reportFile, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Baseline recorded at " + baseline.toAbsolutePath() + ", commit it to compare later runs");
+        } else if (Files.exists(baseline)) {
+            List<String> regressions = regressions(objectMapper.readTree(baseline.toFile()), report, maxRegression);
+            assertTrue(regressions.isEmpty(), "p99 regressed against " + baseline + ": " + regressions);
+        } else {
+            assertFalse(requireBaseline, "No baseline at " + baseline.toAbsolutePath()
+                    + ": record one with -PloadTest.recordBaseline=true and commit it");
+            System.out.println("No baseline at " + baseline.toAbsolutePath() + ", the p99 regression check was skipped;"
+                    + " record one with -PloadTest.recordBaseline=true and commit it");
+        }
+    }
+
+    private void seed() {
+        greetingsService.deleteAllGreetings();
+        greetingsService.ingestGreetings(IntStream.range(0, SEEDED_GREETINGS)
+                .mapToObj(i -> new Greeting("load-" + i, title(i)))
+                .iterator());
+    }
+
+    private static String title(int i) {
+        return "Greeting " + i + " about " + TOPICS[i % TOPICS.length];
+    }
+
+    private static Operation pick(double readRatio) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean write = random.nextDouble() >= readRatio;
+        int total = 0;
+        for (Operation operation : Operation.values()) {
+            total += operation.write == write ? operation.weight : 0;
+        }
+        int ticket = random.nextInt(total);
+        for (Operation operation : Operation.values()) {
+            if (operation.write == write) {
+                ticket -= operation.weight;
+                if (ticket < 0) {
+                    return operation;
+                }
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private boolean call(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int seeded = random.nextInt(SEEDED_GREETINGS);
+        HttpRequest.Builder request = switch (operation) {
+            case HELLO -> get("/hello-world?name=load");
+            case INFO -> get("/info?title=" + title(seeded).replace(' ', '+'));
+            case INFO_BATCH -> post("/info/batch", "[\"" + title(seeded) + "\", \"" + title((seeded + 1) % SEEDED_GREETINGS)
+                    + "\", \"No such title\"]");
+            case INFO_SEARCH -> get("/info/search?q=" + TOPICS[seeded % TOPICS.length] + "&size=20");
+            case GREETINGS_ALL -> get("/greetings");
+            case GREETINGS_PAGE -> get("/greetings?size=50");
+            case GREETINGS_STREAM -> get("/greetings/stream");
+            case CREATE -> {
+                String id = "created-" + createdCount.incrementAndGet();
+                created.add(id);
+                yield post("/greetings", "{\"id\":\"" + id + "\",\"content\":\"Created " + id + "\"}");
+            }
+            case CREATE_BATCH -> post("/greetings/batch", IntStream.range(0, 10)
+                    .mapToObj(i -> "{\"content\":\"Batched " + i + "\"}")
+                    .reduce((first, second) -> first + "," + second)
+                    .map(items -> "[" + items + "]")
+                    .orElseThrow());
+            case UPDATE -> HttpRequest.newBuilder(uri("/greetings/load-" + seeded))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString("{\"content\":\"" + title(seeded) + "\"}"));
+            case DELETE -> {
+                String id = created.poll();
+                yield id == null ? get("/greetings?size=1") : HttpRequest.newBuilder(uri("/greetings/" + id)).DELETE();
+            }
+        };
+        try {
+            HttpResponse<Void> response = httpClient.send(request.timeout(Duration.ofSeconds(10)).build(),
+                    HttpResponse.BodyHandlers.discarding());
+            return response.statusCode() / 100 == 2;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET();
+    }
+
+    private HttpRequest.Builder post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static ObjectNode report(Map<Operation, Stats> stats, Duration duration, String commit, int rate,
+                                     Duration warmup, double readRatio) {
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("commit", commit);
+        report.put("timestamp", Instant.now().toString());
+        ObjectNode config = report.putObject("config");
+        config.put("rate", rate);
+        config.put("warmup", warmup.toString());
+        config.put("duration", duration.toString());
+        config.put("readRatio", readRatio);
+
+        Histogram total = new Histogram(HIGHEST_LATENCY_MICROS, 3);
+        long totalErrors = 0;
+        ObjectNode operations = report.putObject("operations");
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Histogram latencies = entry.getValue().latencies;
+            long errors = entry.getValue().errors.get();
+            if (latencies.getTotalCount() > 0) {
+                summarize(operations.putObject(entry.getKey().name()), latencies, errors, duration);
+            }
+            total.add(latencies);
+            totalErrors += errors;
+        }
+        summarize(report.putObject("total"), total, totalErrors, duration);
+        return report;
+    }
+
+    private static void summarize(ObjectNode node, Histogram latencies, long errors, Duration duration) {
+        node.put("count", latencies.getTotalCount());
+        node.put("errors", errors);
+        node.put("throughput", latencies.getTotalCount() / (duration.toNanos() / 1e9));
+        node.put("p50Ms", latencies.getValueAtPercentile(50) / 1000.0);
+        node.put("p90Ms", latencies.getValueAtPercentile(90) / 1000.0);
+        node.put("p99Ms", latencies.getValueAtPercentile(99) / 1000.0);
+        node.put("p999Ms", latencies.getValueAtPercentile(99.9) / 1000.0);
+        node.put("maxMs", latencies.getMaxValue() / 1000.0);
+    }
+
+    private static List<String> regressions(JsonNode baseline, JsonNode report, double maxRegression) {
+        List<String> regressions = new ArrayList<>();
+        Map<String, JsonNode> compared = new LinkedHashMap<>();
+        report.get("operations").fields().forEachRemaining(entry -> compared.put(entry.getKey(), entry.getValue()));
+        compared.put("total", report.get("total"));
+        for (Map.Entry<String, JsonNode> entry : compared.entrySet()) {
+            JsonNode before = "total".equals(entry.getKey()) ? baseline.get("total") : baseline.path("operations").get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double was = before.get("p99Ms").asDouble();
+            double is = entry.getValue().get("p99Ms").asDouble();
+            if (is > was * (1 + maxRegression) && is - was > MIN_REGRESSION_MS) {
+                regressions.add(String.format("%s %.2f ms -> %.2f ms", entry.getKey(), was, is));
+            }
+        }
+        return regressions;
+    }
+}
@@ -0,0 +1,97 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    private final AdaptiveConcurrencyLimiter limiter =
+            new AdaptiveConcurrencyLimiter(4, 1, 6, Duration.ofMillis(100), 0.5, now::get);
+
+    @Test
+    void testRequestsBeyondTheLimitAreRefused() {
+        // Act
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limiter.tryAcquire() >= 0);
+        }
+
+        // Assert
+        assertEquals(-1, limiter.tryAcquire());
+        assertEquals(4, limiter.inFlight());
+    }
+
+    @Test
+    void testFastRequestsRaiseTheLimitUpToTheMaximum() {
+        for (int round = 0; round < 5; round++) {
+            // Arrange
+            long[] acquired = new long[limiter.limit()];
+            for (int i = 0; i < acquired.length; i++) {
+                acquired[i] = limiter.tryAcquire();
+            }
+
+            // Act
+            now.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+            for (long acquiredAt : acquired) {
+                limiter.release(acquiredAt, false);
+            }
+        }
+
+        // Assert
+        assertEquals(6, limiter.limit());
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void testIdleServiceDoesNotRaiseTheLimit() {
+        // Act
+        for (int i = 0; i < 10; i++) {
+            limiter.release(limiter.tryAcquire(), false);
+        }
+
+        // Assert
+        assertEquals(4, limiter.limit());
+    }
+
+    @Test
+    void testSlowRequestsLowerTheLimitOncePerThreshold() {
+        // Arrange
+        long first = limiter.tryAcquire();
+        long second = limiter.tryAcquire();
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        // Act
+        limiter.release(first, false);
+        limiter.release(second, false);
+
+        // Assert
+        assertEquals(2, limiter.limit());
+        limiter.release(limiter.tryAcquire(), true);
+        assertEquals(2, limiter.limit());
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        limiter.release(limiter.tryAcquire(), true);
+        assertEquals(1, limiter.limit());
+    }
+
+    @Test
+    void testUntimedRequestsOnlyLowerTheLimitWhenOverloaded() {
+        // Arrange
+        long slow = limiter.tryAcquire();
+        long failed = limiter.tryAcquire();
+        now.addAndGet(TimeUnit.SECONDS.toNanos(5));
+
+        // Act
+        limiter.release(slow, false, false);
+        int afterSlow = limiter.limit();
+        limiter.release(failed, true, false);
+
+        // Assert
+        assertEquals(4, afterSlow);
+        assertEquals(2, limiter.limit());
+    }
+}
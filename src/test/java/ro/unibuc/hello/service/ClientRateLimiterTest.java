@@ -0,0 +1,67 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(TimeUnit.SECONDS.toNanos(1000));
+    // 10 per second, so a token every 100ms
+    private final ClientRateLimiter rateLimiter = new ClientRateLimiter(10, 3, 1000, now::get);
+
+    @Test
+    void testBurstIsAdmittedThenRefused() {
+        // Act & Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client"));
+        }
+        long wait = rateLimiter.tryAcquire("client");
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), wait);
+    }
+
+    @Test
+    void testTokensRefillAtTheRate() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client");
+        }
+
+        // Act
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Assert
+        assertEquals(0, rateLimiter.tryAcquire("client"));
+        assertTrue(rateLimiter.tryAcquire("client") > 0);
+    }
+
+    @Test
+    void testIdleClientDoesNotSaveUpMoreThanTheBurst() {
+        // Arrange
+        rateLimiter.tryAcquire("client");
+
+        // Act
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        // Assert
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client"));
+        }
+        assertTrue(rateLimiter.tryAcquire("client") > 0);
+    }
+
+    @Test
+    void testClientsHaveSeparateBuckets() {
+        // Arrange
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("noisy");
+        }
+
+        // Act & Assert
+        assertTrue(rateLimiter.tryAcquire("noisy") > 0);
+        assertEquals(0, rateLimiter.tryAcquire("quiet"));
+    }
+}
@@ -0,0 +1,134 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreetingJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testReplayReturnsRecordsAfterTheCheckpoint() throws IOException {
+        // Arrange
+        try (GreetingJournal journal = new GreetingJournal(directory, SEGMENT_SIZE, false)) {
+            journal.replay();
+            long first = journal.append("1", "Hello");
+            journal.append("2", null);
+            journal.append("3", "Bun\u0103 ziua");
+            journal.checkpoint(first);
+        }
+
+        // Act
+        List<GreetingJournal.Entry> replayed;
+        try (GreetingJournal journal = new GreetingJournal(directory, SEGMENT_SIZE, false)) {
+            replayed = journal.replay();
+        }
+
+        // Assert
+        assertEquals(2, replayed.size());
+        assertEquals("2", replayed.get(0).id());
+        assertNull(replayed.get(0).content());
+        assertEquals("Bun\u0103 ziua", replayed.get(1).content());
+    }
+
+    @Test
+    void testSequencesContinueAfterRestart() throws IOException {
+        // Arrange
+        long last;
+        try (GreetingJournal journal = new GreetingJournal(directory, SEGMENT_SIZE, false)) {
+            journal.replay();
+            journal.append("1", "a");
+            last = journal.append("2", "b");
+        }
+
+        // Act
+        long next;
+        try (GreetingJournal journal = new GreetingJournal(directory, SEGMENT_SIZE, false)) {
+            assertEquals(2, journal.replay().size());
+            next = journal.append("3", "c");
+        }
+
+        // Assert
+        assertTrue(next > last);
+    }
+
+    @Test
+    void testCheckpointDeletesWrittenSegments() throws IOException {
+        try (GreetingJournal journal = new GreetingJournal(directory, SEGMENT_SIZE, false)) {
+            // Arrange
+            journal.replay();
+            long last = 0;
+            for (int i = 0; i < 100; i++) {
+                last = journal.append(Integer.toString(i), "x".repeat(200));
+            }
+            assertTrue(journal.segmentCount() > 1);
+
+            // Act
+            journal.checkpoint(last);
+
+            // Assert
+            assertEquals(1, journal.segmentCount());
+            assertEquals(1, segmentFiles().size());
+        }
+    }
+
+    @Test
+    void testReplayStopsAtATornRecord() throws IOException {
+        // Arrange
+        try (GreetingJournal journal = new GreetingJournal(directory, SEGMENT_SIZE, false)) {
+            journal.replay();
+            journal.append("1", "intact");
+            journal.append("2", "torn");
+        }
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // flip a byte in the second record's payload, as a write cut short by a crash would leave it
+            ByteBuffer header = ByteBuffer.allocate(4);
+            channel.read(header, 0);
+            int secondRecord = 16 + header.flip().getInt();
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xff}), secondRecord + 20);
+        }
+
+        // Act
+        List<GreetingJournal.Entry> replayed;
+        try (GreetingJournal journal = new GreetingJournal(directory, SEGMENT_SIZE, false)) {
+            replayed = journal.replay();
+        }
+
+        // Assert
+        assertEquals(1, replayed.size());
+        assertEquals("intact", replayed.get(0).content());
+    }
+
+    @Test
+    void testRecordLargerThanASegmentIsRefused() throws IOException {
+        try (GreetingJournal journal = new GreetingJournal(directory, SEGMENT_SIZE, false)) {
+            journal.replay();
+
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class, () -> journal.append("1", "x".repeat(SEGMENT_SIZE)));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> !path.getFileName().toString().equals(GreetingJournal.CHECKPOINT_FILE))
+                    .sorted()
+                    .toList();
+        }
+    }
+}
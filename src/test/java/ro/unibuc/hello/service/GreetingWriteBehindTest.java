@@ -0,0 +1,162 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+import ro.unibuc.hello.dto.BatchResult;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.exception.WriteBacklogFullException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class GreetingWriteBehindTest {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<GreetingWriteBehind> started = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        started.forEach(GreetingWriteBehind::stop);
+    }
+
+    @Test
+    void testAcceptedGreetingsAreWrittenInBulk() throws InterruptedException {
+        // Arrange
+        GreetingsService greetingsService = mock(GreetingsService.class);
+        List<String> written = recordWrites(greetingsService);
+        GreetingWriteBehind writeBehind = start(greetingsService, 100);
+
+        // Act
+        Greeting first = writeBehind.accept(new Greeting(null, "Hello"));
+        writeBehind.accept(new Greeting("given", "Hi"));
+
+        // Assert
+        assertNotNull(first.getId());
+        awaitTrue(() -> writeBehind.backlog() == 0);
+        assertEquals(List.of(first.getId(), "given"), written);
+        assertEquals(2, meterRegistry.get("greetings.write-behind.accepted").counter().count());
+        assertEquals(0, meterRegistry.get("greetings.write-behind.queue.depth").gauge().value());
+    }
+
+    @Test
+    void testFullBacklogRefusesGreetings() throws InterruptedException {
+        // Arrange
+        GreetingsService greetingsService = mock(GreetingsService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(greetingsService.ingestGreetings(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new BatchResult();
+        });
+        GreetingWriteBehind writeBehind = start(greetingsService, 2);
+
+        // Act
+        writeBehind.accept(new Greeting(null, "one"));
+        writeBehind.accept(new Greeting(null, "two"));
+        WriteBacklogFullException e = assertThrows(WriteBacklogFullException.class,
+                () -> writeBehind.accept(new Greeting(null, "three")));
+
+        // Assert
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1, meterRegistry.get("greetings.write-behind.rejected").counter().count());
+        release.countDown();
+        awaitTrue(() -> writeBehind.backlog() == 0);
+        writeBehind.accept(new Greeting(null, "four"));
+    }
+
+    @Test
+    void testUnwrittenGreetingsAreReplayedAfterRestart() throws InterruptedException {
+        // Arrange
+        GreetingsService unavailable = mock(GreetingsService.class);
+        when(unavailable.ingestGreetings(any())).thenThrow(new DataAccessResourceFailureException("Mongo is down"));
+        GreetingWriteBehind before = start(unavailable, 100);
+        String id = before.accept(new Greeting(null, "Survivor")).getId();
+        before.stop();
+        started.remove(before);
+
+        GreetingsService available = mock(GreetingsService.class);
+        List<String> written = recordWrites(available);
+
+        // Act
+        GreetingWriteBehind after = start(available, 100);
+
+        // Assert
+        awaitTrue(() -> after.backlog() == 0);
+        assertEquals(List.of(id), written);
+    }
+
+    @Test
+    void testUpdatesWaitUntilTheGreetingIsCheckpointed() throws InterruptedException {
+        // Arrange
+        GreetingsService greetingsService = mock(GreetingsService.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(greetingsService.ingestGreetings(any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new BatchResult();
+        });
+        GreetingWriteBehind writeBehind = start(greetingsService, 100);
+        String id = writeBehind.accept(new Greeting(null, "Pending")).getId();
+
+        // Act
+        ReflectionTestUtils.setField(writeBehind, "updateWait", Duration.ofMillis(50));
+        assertThrows(WriteBacklogFullException.class, () -> writeBehind.awaitWritten(id));
+        ReflectionTestUtils.setField(writeBehind, "updateWait", Duration.ofSeconds(5));
+        CountDownLatch updated = new CountDownLatch(1);
+        Thread.ofVirtual().start(() -> {
+            writeBehind.awaitWritten(id);
+            updated.countDown();
+        });
+
+        // Assert
+        assertFalse(updated.await(50, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(updated.await(5, TimeUnit.SECONDS));
+        writeBehind.awaitWritten("never-accepted");
+    }
+
+    private GreetingWriteBehind start(GreetingsService greetingsService, int maxBacklog) {
+        GreetingWriteBehind writeBehind = new GreetingWriteBehind(directory, maxBacklog, Duration.ofMillis(10),
+                DataSize.ofKilobytes(64), false, meterRegistry);
+        ReflectionTestUtils.setField(writeBehind, "greetingsService", greetingsService);
+        ReflectionTestUtils.setField(writeBehind, "retryDelay", Duration.ofMillis(10));
+        writeBehind.start();
+        started.add(writeBehind);
+        return writeBehind;
+    }
+
+    private static List<String> recordWrites(GreetingsService greetingsService) {
+        List<String> written = new CopyOnWriteArrayList<>();
+        when(greetingsService.ingestGreetings(any())).thenAnswer(invocation -> {
+            Iterator<Greeting> greetings = invocation.getArgument(0);
+            greetings.forEachRemaining(greeting -> written.add(greeting.getId()));
+            return new BatchResult();
+        });
+        return written;
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GreetingsBodyCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong();
+    private final GreetingsBodyCache cache = new GreetingsBodyCache(true, true, DataSize.ofBytes(16), Duration.ofSeconds(5),
+            meterRegistry, now::get);
+    private final AtomicInteger encodings = new AtomicInteger();
+
+    @Test
+    void testBodyIsEncodedOncePerTag() {
+        // Act
+        GreetingsBodyCache.Body first = cache.get("v1", () -> encode("[]"));
+        GreetingsBodyCache.Body second = cache.get("v1", () -> encode("[]"));
+        GreetingsBodyCache.Body third = cache.get("v2", () -> encode("[{}]"));
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("[{}]", new String(third.json(), StandardCharsets.UTF_8));
+        assertEquals(2, encodings.get());
+        assertEquals(1, meterRegistry.get("greetings.body.cache").tag("result", "hit").counter().count());
+        assertEquals(2, meterRegistry.get("greetings.body.cache").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void testBodyIsEncodedAgainAfterTheMaximumAge() {
+        // Arrange
+        GreetingsBodyCache.Body first = cache.get("v1", () -> encode("[]"));
+
+        // Act
+        now.addAndGet(Duration.ofSeconds(4).toNanos());
+        GreetingsBodyCache.Body young = cache.get("v1", () -> encode("[]"));
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        GreetingsBodyCache.Body expired = cache.get("v1", () -> encode("[{}]"));
+
+        // Assert
+        assertSame(first, young);
+        assertEquals("[{}]", new String(expired.json(), StandardCharsets.UTF_8));
+        assertEquals(2, encodings.get());
+    }
+
+    @Test
+    void testOnlyBodiesAboveTheMinimumSizeAreGzipped() throws IOException {
+        // Arrange
+        String large = "[{\"id\":\"1\",\"content\":\"Hello\"}]";
+
+        // Act
+        GreetingsBodyCache.Body small = cache.get("v1", () -> encode("[]"));
+        GreetingsBodyCache.Body body = cache.get("v2", () -> encode(large));
+
+        // Assert
+        assertNull(small.gzip());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body.gzip()))) {
+            assertEquals(large, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private byte[] encode(String json) {
+        encodings.incrementAndGet();
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
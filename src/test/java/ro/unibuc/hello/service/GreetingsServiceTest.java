@@ -6,15 +6,37 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonString;
 import ro.unibuc.hello.data.InformationEntity;
 import ro.unibuc.hello.data.InformationRepository;
+import ro.unibuc.hello.data.InformationTitle;
+import ro.unibuc.hello.dto.BatchItemResult;
+import ro.unibuc.hello.dto.BatchResult;
 import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.dto.GreetingPage;
+import ro.unibuc.hello.dto.InfoBatch;
+import ro.unibuc.hello.dto.SearchResults;
+import ro.unibuc.hello.exception.BatchTooLargeException;
 import ro.unibuc.hello.exception.EntityNotFoundException;
+import ro.unibuc.hello.exception.InvalidContinuationTokenException;
+import ro.unibuc.hello.exception.MalformedBatchException;
+import ro.unibuc.hello.exception.SearchDisabledException;
+import java.util.ArrayList;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -24,6 +46,24 @@ class GreetingsServiceTest {
     @Mock
     private InformationRepository informationRepository;
 
+    @Spy
+    private InformationCache informationCache = new InformationCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+
+    @Spy
+    private IdGenerator idGenerator = new AtomicIdGenerator();
+
+    @Spy
+    private DataVersion dataVersion = new DataVersion();
+
+    @Mock
+    private InformationLookupBatcher informationLookupBatcher;
+
+    @Spy
+    private SearchIndex searchIndex = new SearchIndex(true);
+
+    @Spy
+    private InformationSnapshot informationSnapshot = new InformationSnapshot(false, new ObjectMapper(), new SimpleMeterRegistry());
+
     @InjectMocks
     private GreetingsService greetingsService = new GreetingsService();
 
@@ -71,6 +111,90 @@ class GreetingsServiceTest {
         assertThrows(EntityNotFoundException.class, () -> greetingsService.buildGreetingFromInfo(title));
     }
 
+    @Test
+    void testBuildGreetingFromInfo_CachesByTitle() {
+        // Arrange
+        String title = "Title";
+        when(informationRepository.findByTitle(title)).thenReturn(new InformationEntity("1", title, "Description"));
+
+        // Act
+        greetingsService.buildGreetingFromInfo(title);
+        Greeting greeting = greetingsService.buildGreetingFromInfo(title);
+
+        // Assert
+        assertEquals("Title : Description!", greeting.getContent());
+        verify(informationRepository, times(1)).findByTitle(title);
+    }
+
+    @Test
+    void testBuildGreetingFromInfo_CachesMissingTitle() {
+        // Arrange
+        String title = "NonExistingTitle";
+        when(informationRepository.findByTitle(title)).thenReturn(null);
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> greetingsService.buildGreetingFromInfo(title));
+        assertThrows(EntityNotFoundException.class, () -> greetingsService.buildGreetingFromInfo(title));
+        verify(informationRepository, times(1)).findByTitle(title);
+    }
+
+    @Test
+    void testBuildGreetingFromInfo_UsesBatcherWhenEnabled() {
+        // Arrange
+        when(informationLookupBatcher.isEnabled()).thenReturn(true);
+        when(informationLookupBatcher.findByTitle("Title")).thenReturn(new InformationEntity("1", "Title", "Description"));
+
+        // Act
+        Greeting greeting = greetingsService.buildGreetingFromInfo("Title");
+
+        // Assert
+        assertEquals("Title : Description!", greeting.getContent());
+        verify(informationRepository, never()).findByTitle(any());
+    }
+
+    @Test
+    void testBuildGreetingsFromInfo_OneQueryForUncachedTitles() {
+        // Arrange
+        when(informationRepository.findByTitle("Cached")).thenReturn(new InformationEntity("1", "Cached", "From cache"));
+        greetingsService.buildGreetingFromInfo("Cached");
+        when(informationRepository.findByTitleIn(any())).thenReturn(List.of(new InformationEntity("2", "Loaded", "From query")));
+
+        // Act
+        InfoBatch batch = greetingsService.buildGreetingsFromInfo(Arrays.asList("Loaded", "Cached", "Unknown", "Loaded", null));
+
+        // Assert
+        assertEquals(List.of("Loaded", "Cached"), new ArrayList<>(batch.getFound().keySet()));
+        assertEquals("Loaded : From query!", batch.getFound().get("Loaded").getContent());
+        assertEquals("Cached : From cache!", batch.getFound().get("Cached").getContent());
+        assertEquals(List.of("Unknown"), batch.getMissing());
+        verify(informationRepository, times(1)).findByTitleIn(Set.of("Loaded", "Unknown"));
+    }
+
+    @Test
+    void testBuildGreetingsFromInfo_TooManyTitles() {
+        // Arrange
+        ReflectionTestUtils.setField(greetingsService, "maxBatchTitles", 2);
+
+        // Act & Assert
+        assertThrows(BatchTooLargeException.class, () -> greetingsService.buildGreetingsFromInfo(List.of("a", "b", "c")));
+        verify(informationRepository, never()).findByTitleIn(any());
+    }
+
+    @Test
+    void testSaveGreeting_EvictsMissingTitle() {
+        // Arrange
+        String title = "New";
+        when(informationRepository.findByTitle(title)).thenReturn(null);
+        assertThrows(EntityNotFoundException.class, () -> greetingsService.buildGreetingFromInfo(title));
+
+        // Act
+        greetingsService.saveGreeting(new Greeting("1", title));
+        when(informationRepository.findByTitle(title)).thenReturn(new InformationEntity("1", title, "Description"));
+
+        // Assert
+        assertEquals("New : Description!", greetingsService.buildGreetingFromInfo(title).getContent());
+    }
+
     @Test
     void testSaveGreeting() {
         // Arrange
@@ -91,9 +215,7 @@ class GreetingsServiceTest {
         // Arrange
         String id = "1";
         Greeting greeting = new Greeting(id, "Updated Greeting");
-        InformationEntity entity = new InformationEntity(id, "Old Greeting", "Description");
-        when(informationRepository.findById(id)).thenReturn(Optional.of(entity));
-        when(informationRepository.save(any(InformationEntity.class))).thenReturn(new InformationEntity(id, "Updated Greeting", "Description"));
+        when(informationRepository.updateTitle(id, "Updated Greeting")).thenReturn(new InformationEntity(id, "Old Greeting", "kept"));
 
         // Act
         Greeting updatedGreeting = greetingsService.updateGreeting(id, greeting);
@@ -102,6 +224,12 @@ class GreetingsServiceTest {
         assertNotNull(updatedGreeting);
         assertEquals(id, updatedGreeting.getId());
         assertEquals("Updated Greeting", updatedGreeting.getContent());
+        verify(informationCache).evictTitle("Old Greeting");
+        verify(informationCache).evictTitle("Updated Greeting");
+        verify(searchIndex).put(id, "Updated Greeting", "kept");
+        verify(dataVersion).bump();
+        verify(informationRepository, never()).findById(any());
+        verify(informationRepository, never()).save(any());
     }
 
     @Test
@@ -109,44 +237,123 @@ class GreetingsServiceTest {
         // Arrange
         String id = "NonExistingId";
         Greeting greeting = new Greeting(id, "Updated Greeting");
-        when(informationRepository.findById(id)).thenReturn(Optional.empty());
+        when(informationRepository.updateTitle(id, "Updated Greeting")).thenReturn(null);
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> greetingsService.updateGreeting(id, greeting));
+        verify(dataVersion, never()).bump();
     }
 
     @Test
     void testDeleteGreeting_ExistingEntity() throws EntityNotFoundException {
         // Arrange
         String id = "1";
-        InformationEntity entity = new InformationEntity(id, "Greeting to delete", "Description");
-        when(informationRepository.findById(id)).thenReturn(Optional.of(entity));
+        when(informationRepository.removeById(id)).thenReturn(new InformationEntity(id, "Greeting to delete", null));
 
         // Act
         greetingsService.deleteGreeting(id);
 
         // Assert
-        verify(informationRepository, times(1)).delete(entity);
+        verify(informationRepository, times(1)).removeById(id);
+        verify(informationCache).evictTitle("Greeting to delete");
+        verify(searchIndex).remove(id);
+        verify(dataVersion).bump();
+        verify(informationRepository, never()).findById(any());
     }
 
     @Test
     void testDeleteGreeting_NonExistingEntity() {
         // Arrange
         String id = "NonExistingId";
-        when(informationRepository.findById(id)).thenReturn(Optional.empty());
+        when(informationRepository.removeById(id)).thenReturn(null);
 
         // Act & Assert
         assertThrows(EntityNotFoundException.class, () -> greetingsService.deleteGreeting(id));
     }
 
+    @Test
+    void testSeedInformation_Inserted() {
+        // Arrange
+        InformationEntity entity = new InformationEntity("Overview", "Example");
+        when(informationRepository.insertIfAbsent(entity)).thenAnswer(invocation -> {
+            entity.setId("1");
+            return true;
+        });
+
+        // Act
+        greetingsService.seedInformation(entity);
+
+        // Assert
+        verify(informationCache).evictTitle("Overview");
+        verify(searchIndex).put("1", "Overview", "Example");
+        verify(dataVersion).bump();
+    }
+
+    @Test
+    void testSeedInformation_AlreadyPresent() {
+        // Arrange
+        InformationEntity entity = new InformationEntity("Overview", "Example");
+        when(informationRepository.insertIfAbsent(entity)).thenReturn(false);
+
+        // Act
+        greetingsService.seedInformation(entity);
+
+        // Assert
+        verify(searchIndex, never()).put(any(), any(), any());
+        verify(dataVersion, never()).bump();
+    }
+
+    @Test
+    void testRebuildSearchIndex_ThenSearchFollowsWrites() {
+        // Arrange
+        when(informationRepository.streamEntities()).thenReturn(Stream.of(
+                new InformationEntity("1", "Overview", "An example of a data storage engine"),
+                new InformationEntity("2", "Storage", "Where the data lives")));
+        when(informationRepository.save(any(InformationEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        greetingsService.rebuildSearchIndex();
+        greetingsService.saveGreeting(new Greeting("3", "Storage engines compared"));
+        SearchResults results = greetingsService.searchInfo("storage", 0, 10);
+
+        // Assert
+        assertEquals(3, results.getTotal());
+        assertEquals("2", results.getHits().get(0).getId());
+    }
+
+    @Test
+    void testSearchInfo_Disabled() {
+        // Arrange
+        ReflectionTestUtils.setField(greetingsService, "searchIndex", new SearchIndex(false));
+
+        // Act & Assert
+        assertThrows(SearchDisabledException.class, () -> greetingsService.searchInfo("storage", 0, 10));
+    }
+
+    @Test
+    void testSearchInfo_ClampsPageSize() {
+        // Arrange
+        ReflectionTestUtils.setField(greetingsService, "maxSearchPageSize", 2);
+        for (int i = 0; i < 5; i++) {
+            searchIndex.put(Integer.toString(i), "Greeting " + i, null);
+        }
+
+        // Act
+        SearchResults results = greetingsService.searchInfo("greeting", 1, 50);
+
+        // Assert
+        assertEquals(5, results.getTotal());
+        assertEquals(2, results.getHits().size());
+    }
+
     @Test
     void testGetAllGreetings() {
         // Arrange
-        List<InformationEntity> entities = Arrays.asList(
-                new InformationEntity("1", "Greeting 1", "Description 1"),
-                new InformationEntity("2", "Greeting 2", "Description 2")
+        List<InformationTitle> titles = Arrays.asList(
+                new InformationTitle("1", "Greeting 1"),
+                new InformationTitle("2", "Greeting 2")
         );
-        when(informationRepository.findAll()).thenReturn(entities);
+        when(informationRepository.findTitlesBy()).thenReturn(titles);
 
         // Act
         List<Greeting> greetings = greetingsService.getAllGreetings();
@@ -158,4 +365,163 @@ class GreetingsServiceTest {
         assertEquals("2", greetings.get(1).getId());
         assertEquals("Greeting 2", greetings.get(1).getContent());
     }
+
+    @Test
+    void testSnapshot_ServesReadsAndFollowsWrites() throws Exception {
+        // Arrange
+        InformationSnapshot snapshot = new InformationSnapshot(true, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(greetingsService, "informationSnapshot", snapshot);
+        when(informationRepository.streamEntities()).thenReturn(Stream.of(
+                new InformationEntity("1", "Overview", "An example"),
+                new InformationEntity("2", "Storage", "Where the data lives")));
+        when(informationRepository.save(any(InformationEntity.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(informationRepository.removeById("1")).thenReturn(new InformationEntity("1", "Overview", "An example"));
+
+        // Act
+        greetingsService.loadSnapshot();
+        greetingsService.saveGreeting(new Greeting("3", "Hello"));
+        greetingsService.deleteGreeting("1");
+
+        // Assert
+        assertEquals(List.of("2", "3"), greetingsService.getAllGreetings().stream().map(Greeting::getId).toList());
+        assertEquals("Storage : Where the data lives!", greetingsService.buildGreetingFromInfo("Storage").getContent());
+        assertThrows(EntityNotFoundException.class, () -> greetingsService.buildGreetingFromInfo("Overview"));
+        assertEquals("Hello", greetingsService.getGreetingById("3").getContent());
+        assertEquals("[{\"id\":\"2\",\"content\":\"Storage\"},{\"id\":\"3\",\"content\":\"Hello\"}]",
+                new String(greetingsService.getAllGreetingsJson().orElseThrow()));
+        verify(informationRepository, never()).findTitlesBy();
+        verify(informationRepository, never()).findByTitle(anyString());
+    }
+
+    @Test
+    void testGetGreetingById_ExistingEntity() throws EntityNotFoundException {
+        // Arrange
+        when(informationRepository.findTitleById("1")).thenReturn(Optional.of(new InformationTitle("1", "Greeting 1")));
+
+        // Act
+        Greeting greeting = greetingsService.getGreetingById("1");
+
+        // Assert
+        assertEquals("1", greeting.getId());
+        assertEquals("Greeting 1", greeting.getContent());
+        verify(informationRepository, never()).findById(any());
+    }
+
+    @Test
+    void testGetGreetingById_NonExistingEntity() {
+        // Arrange
+        when(informationRepository.findTitleById("NonExistingId")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> greetingsService.getGreetingById("NonExistingId"));
+    }
+
+    @Test
+    void testGetGreetingsPage_HasNextPage() {
+        // Arrange
+        List<InformationTitle> titles = Arrays.asList(
+                new InformationTitle("1", "Greeting 1"),
+                new InformationTitle("2", "Greeting 2"),
+                new InformationTitle("3", "Greeting 3")
+        );
+        when(informationRepository.findPageAfter(null, 3)).thenReturn(titles);
+        when(informationRepository.findPageAfter("2", 3)).thenReturn(titles.subList(2, 3));
+
+        // Act
+        GreetingPage first = greetingsService.getGreetingsPage(2, null);
+        GreetingPage second = greetingsService.getGreetingsPage(2, first.getNext());
+
+        // Assert
+        assertEquals(2, first.getItems().size());
+        assertEquals("2", first.getItems().get(1).getId());
+        assertNotNull(first.getNext());
+        assertEquals(1, second.getItems().size());
+        assertEquals("Greeting 3", second.getItems().get(0).getContent());
+        assertNull(second.getNext());
+    }
+
+    @Test
+    void testGetGreetingsPage_InvalidToken() {
+        // Act & Assert
+        assertThrows(InvalidContinuationTokenException.class, () -> greetingsService.getGreetingsPage(10, "not base64!"));
+    }
+
+    @Test
+    void testForEachGreeting() {
+        // Arrange
+        when(informationRepository.streamAll()).thenReturn(Stream.of(
+                new InformationTitle("1", "Greeting 1"),
+                new InformationTitle("2", "Greeting 2")));
+        List<Greeting> greetings = new ArrayList<>();
+
+        // Act
+        greetingsService.forEachGreeting(greetings::add);
+
+        // Assert
+        assertEquals(2, greetings.size());
+        assertEquals("Greeting 2", greetings.get(1).getContent());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testIngestGreetings_WritesInChunks() {
+        // Arrange
+        ReflectionTestUtils.setField(greetingsService, "batchChunkSize", 2);
+        when(informationRepository.upsertAll(anyList()))
+                .thenReturn(BulkWriteResult.acknowledged(0, 1, 0, 1,
+                        List.of(new BulkWriteUpsert(1, new BsonString("2"))), List.of()))
+                .thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0,
+                        List.of(new BulkWriteUpsert(0, new BsonString("3"))), List.of()));
+        List<Greeting> greetings = Arrays.asList(
+                new Greeting("1", "Hello 1"), new Greeting("2", "Hello 2"), new Greeting(null, "Hello 3"));
+
+        // Act
+        BatchResult result = greetingsService.ingestGreetings(greetings.iterator());
+
+        // Assert
+        verify(informationRepository, times(2)).upsertAll(anyList());
+        assertEquals(1, result.getUpdated());
+        assertEquals(2, result.getInserted());
+        assertEquals(0, result.getFailed());
+        assertEquals(BatchItemResult.Status.UPDATED, result.getItems().get(0).getStatus());
+        assertEquals(BatchItemResult.Status.INSERTED, result.getItems().get(1).getStatus());
+        assertEquals(2, result.getItems().get(2).getIndex());
+        assertNotNull(result.getItems().get(2).getId());
+    }
+
+    @Test
+    void testIngestGreetings_WritesItemsReadBeforeAMalformedOne() {
+        // Arrange
+        ReflectionTestUtils.setField(greetingsService, "batchChunkSize", 2);
+        when(informationRepository.upsertAll(anyList()))
+                .thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0,
+                        List.of(new BulkWriteUpsert(0, new BsonString("1"))), List.of()));
+        Iterator<Greeting> greetings = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Greeting next() {
+                if (read == 1) {
+                    throw new MalformedBatchException(read, new IllegalArgumentException("Unexpected character"));
+                }
+                read++;
+                return new Greeting("1", "Hello 1");
+            }
+        };
+
+        // Act
+        MalformedBatchException exception = assertThrows(MalformedBatchException.class,
+                () -> greetingsService.ingestGreetings(greetings));
+
+        // Assert
+        verify(informationRepository, times(1)).upsertAll(anyList());
+        assertEquals(1, exception.getIndex());
+        assertEquals(1, exception.getResult().getInserted());
+        assertEquals("Batch item 1 could not be read", exception.getMessage());
+    }
 }
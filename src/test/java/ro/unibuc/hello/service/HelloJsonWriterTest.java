@@ -0,0 +1,42 @@
+package ro.unibuc.hello.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ro.unibuc.hello.dto.Greeting;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HelloJsonWriterTest {
+
+    private final HelloJsonWriter writer = new HelloJsonWriter("Hello, %s!");
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void test_write_matchesJackson() throws IOException {
+        String[] names = {"Stranger", "", "\"quoted\" \\ back", "tab\tnew\nline\u0001", "\u0218tefan", "\u65e5\u672c", "emoji \ud83d\ude00"};
+        long[] ids = {0, 7, 10, 999, 1234567890123L, Long.MAX_VALUE};
+
+        for (String name : names) {
+            for (long id : ids) {
+                // Arrange
+                byte[] expected = objectMapper.writeValueAsBytes(new Greeting(Long.toString(id), String.format("Hello, %s!", name)));
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+                // Act
+                writer.write(id, name, out);
+
+                // Assert
+                assertArrayEquals(expected, out.toByteArray(), "name=" + name + ", id=" + id);
+                assertEquals(expected.length, writer.length(id, name), "name=" + name + ", id=" + id);
+            }
+        }
+    }
+
+    @Test
+    void test_constructor_rejectsTemplateWithoutPlaceholder() {
+        assertThrows(IllegalArgumentException.class, () -> new HelloJsonWriter("Hello!"));
+    }
+}
@@ -0,0 +1,132 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 20_000;
+
+    @Test
+    void testAtomic_Sequential() {
+        // Arrange
+        IdGenerator generator = new AtomicIdGenerator();
+
+        // Act & Assert
+        assertEquals(1, generator.nextId());
+        assertEquals(2, generator.nextId());
+        assertEquals(3, generator.nextId());
+    }
+
+    @Test
+    void testStriped_SingleThreadIsSequentialWithinBlock() {
+        // Arrange
+        IdGenerator generator = new StripedIdGenerator(4, 16);
+
+        // Act & Assert
+        for (long expected = 1; expected <= 48; expected++) {
+            assertEquals(expected, generator.nextId());
+        }
+    }
+
+    @Test
+    void testStriped_UniqueAcrossThreads() throws Exception {
+        assertUniqueAcrossThreads(new StripedIdGenerator(4, 64));
+    }
+
+    @Test
+    void testSnowflake_UniqueAcrossThreads() throws Exception {
+        assertUniqueAcrossThreads(new SnowflakeIdGenerator(5));
+    }
+
+    @Test
+    void testSnowflake_Layout() {
+        // Arrange
+        long millis = SnowflakeIdGenerator.EPOCH.toEpochMilli() + 1000;
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(5, () -> millis);
+
+        // Act
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        // Assert
+        assertEquals(1000, first >>> 22);
+        assertEquals(5, (first >>> 12) & SnowflakeIdGenerator.MAX_NODE_ID);
+        assertEquals(0, first & 0xFFF);
+        assertEquals(first + 1, second);
+    }
+
+    @Test
+    void testSnowflake_DistinctNodesDoNotCollide() {
+        // Arrange
+        long millis = SnowflakeIdGenerator.EPOCH.toEpochMilli() + 1000;
+        IdGenerator first = new SnowflakeIdGenerator(1, () -> millis);
+        IdGenerator second = new SnowflakeIdGenerator(2, () -> millis);
+
+        // Act & Assert
+        assertNotEquals(first.nextId(), second.nextId());
+    }
+
+    @Test
+    void testSnowflake_ClockGoingBackKeepsIdsIncreasing() {
+        // Arrange
+        AtomicLong clock = new AtomicLong(SnowflakeIdGenerator.EPOCH.toEpochMilli() + 5000);
+        IdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+        long before = generator.nextId();
+
+        // Act
+        clock.addAndGet(-1000);
+        long after = generator.nextId();
+
+        // Assert
+        assertTrue(after > before);
+    }
+
+    @Test
+    void testSnowflake_RejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+    }
+
+    private static void assertUniqueAcrossThreads(IdGenerator generator) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Callable<long[]>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                tasks.add(() -> {
+                    long[] ids = new long[IDS_PER_THREAD];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                    return ids;
+                });
+            }
+            Set<Long> seen = new HashSet<>();
+            for (Future<long[]> future : executor.invokeAll(tasks)) {
+                long[] ids = future.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertTrue(ids[i] > 0);
+                    assertTrue(seen.add(ids[i]), "Duplicate id " + ids[i]);
+                    if (i > 0) {
+                        assertTrue(ids[i] > ids[i - 1], "Ids of one thread must increase");
+                    }
+                }
+            }
+            assertEquals(THREADS * IDS_PER_THREAD, seen.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
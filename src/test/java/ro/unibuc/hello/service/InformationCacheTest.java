@@ -0,0 +1,86 @@
+package ro.unibuc.hello.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ro.unibuc.hello.data.InformationEntity;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InformationCacheTest {
+
+    // the thread whose next ticker read evicts "Overview", as a write on another replica would
+    private final AtomicReference<Thread> evictOnNextRead = new AtomicReference<>();
+    private InformationCache cache;
+
+    // Caffeine reads the ticker when a put starts, so the eviction lands after the generation check and before the put
+    private final Ticker ticker = () -> {
+        if (evictOnNextRead.compareAndSet(Thread.currentThread(), null)) {
+            cache.evictTitle("Overview");
+        }
+        return System.nanoTime();
+    };
+
+    @Test
+    void testLoadRacingAWriteIsNotCached() {
+        // Arrange
+        cache = new InformationCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        cache.get("Overview", title -> {
+            loads.incrementAndGet();
+            cache.evictTitle(title);
+            return new InformationEntity("1", title, "stale");
+        });
+        cache.get("Overview", title -> {
+            loads.incrementAndGet();
+            return new InformationEntity("1", title, "fresh");
+        });
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testWriteBetweenTheCheckAndThePutIsNotLost() {
+        // Arrange
+        cache = new InformationCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry(), ticker);
+
+        // Act
+        cache.get("Overview", title -> {
+            evictOnNextRead.set(Thread.currentThread());
+            return new InformationEntity("1", title, "stale");
+        });
+        String description = cache.get("Overview", title -> new InformationEntity("1", title, "fresh"))
+                .orElseThrow().getDescription();
+
+        // Assert
+        assertNull(evictOnNextRead.get());
+        assertEquals("fresh", description);
+    }
+
+    @Test
+    void testBatchWriteBetweenTheCheckAndThePutIsNotLost() {
+        // Arrange
+        cache = new InformationCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry(), ticker);
+
+        // Act
+        cache.getAll(List.of("Overview"), titles -> {
+            evictOnNextRead.set(Thread.currentThread());
+            return List.of(new InformationEntity("1", "Overview", "stale"));
+        });
+        String description = cache.getAll(List.of("Overview"), (Set<String> titles) -> List.of(new InformationEntity("1", "Overview", "fresh")))
+                .get("Overview").orElseThrow().getDescription();
+
+        // Assert
+        assertNull(evictOnNextRead.get());
+        assertEquals("fresh", description);
+    }
+}
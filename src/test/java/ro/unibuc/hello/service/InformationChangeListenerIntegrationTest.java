@@ -0,0 +1,177 @@
+package ro.unibuc.hello.service;
+
+import org.bson.Document;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.dto.Greeting;
+import ro.unibuc.hello.exception.EntityNotFoundException;
+
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Writes go straight through MongoTemplate, as another replica would, so only the change stream can evict the cache.
+ */
+@SpringBootTest(properties = {
+        "info.seed.enabled=false",
+        "info.change-stream.enabled=true",
+        "info.change-stream.consumer-id=integration-test",
+        "info.change-stream.token-save-interval=0s"
+})
+@Testcontainers
+@Tag("IntegrationTest")
+public class InformationChangeListenerIntegrationTest {
+
+    @Container
+    public static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:6.0.20")
+            .withExposedPorts(27017)
+            .withSharding();
+
+    @BeforeAll
+    public static void setUp() {
+        mongoDBContainer.start();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        mongoDBContainer.stop();
+    }
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        final String MONGO_URL = "mongodb://localhost:";
+        final String PORT = String.valueOf(mongoDBContainer.getMappedPort(27017));
+
+        registry.add("mongodb.connection.url", () -> MONGO_URL + PORT);
+    }
+
+    @Autowired
+    private GreetingsService greetingsService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private DataVersion dataVersion;
+
+    @BeforeEach
+    public void cleanUp() {
+        greetingsService.deleteAllGreetings();
+    }
+
+    @Test
+    public void testUpdateFromAnotherReplicaEvictsCachedEntry() {
+        // Arrange
+        InformationEntity entity = mongoTemplate.insert(new InformationEntity("Overview", "Before"));
+        assertEquals("Overview : Before!", greetingsService.buildGreetingFromInfo("Overview").getContent());
+        String tag = dataVersion.tag();
+
+        // Act
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(entity.getId())),
+                Update.update("description", "After"), InformationEntity.class);
+
+        // Assert
+        awaitTrue(() -> greetingsService.buildGreetingFromInfo("Overview").getContent().equals("Overview : After!"));
+        assertNotEquals(tag, dataVersion.tag());
+    }
+
+    @Test
+    public void testInsertFromAnotherReplicaEvictsCachedMiss() {
+        // Arrange
+        assertThrows(EntityNotFoundException.class, () -> greetingsService.buildGreetingFromInfo("Late"));
+
+        // Act
+        mongoTemplate.insert(new InformationEntity("Late", "Arrived"));
+
+        // Assert
+        awaitTrue(() -> {
+            try {
+                Greeting greeting = greetingsService.buildGreetingFromInfo("Late");
+                return greeting.getContent().equals("Late : Arrived!");
+            } catch (EntityNotFoundException e) {
+                return false;
+            }
+        });
+    }
+
+    @Test
+    public void testRenameAndDeleteFromAnotherReplicaEvictOldTitle() {
+        // Arrange
+        InformationEntity entity = mongoTemplate.insert(new InformationEntity("Old", "Description"));
+        greetingsService.buildGreetingFromInfo("Old");
+
+        // Act
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(entity.getId())),
+                Update.update("title", "New"), InformationEntity.class);
+
+        // Assert
+        awaitTrue(() -> notFound("Old"));
+        mongoTemplate.remove(Query.query(Criteria.where("_id").is(entity.getId())), InformationEntity.class);
+        greetingsService.buildGreetingFromInfo("New");
+        awaitTrue(() -> notFound("New"));
+    }
+
+    @Test
+    public void testMalformedDocumentDoesNotStopTheListener() {
+        // Arrange
+        InformationEntity entity = mongoTemplate.insert(new InformationEntity("Sturdy", "Before"));
+        greetingsService.buildGreetingFromInfo("Sturdy");
+
+        // Act
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(InformationEntity.class))
+                .insertOne(new Document("title", 42).append("description", "not a string title"));
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(entity.getId())),
+                Update.update("description", "After"), InformationEntity.class);
+
+        // Assert
+        awaitTrue(() -> greetingsService.buildGreetingFromInfo("Sturdy").getContent().equals("Sturdy : After!"));
+    }
+
+    @Test
+    public void testResumeTokenIsPersisted() {
+        // Act
+        mongoTemplate.insert(new InformationEntity("Token", "Description"));
+
+        // Assert
+        awaitTrue(() -> {
+            Document stored = mongoTemplate.getCollection(InformationChangeListener.TOKEN_COLLECTION)
+                    .find(new Document("_id", "integration-test")).first();
+            return stored != null && stored.get("token") != null;
+        });
+    }
+
+    private boolean notFound(String title) {
+        try {
+            greetingsService.buildGreetingFromInfo(title);
+            return false;
+        } catch (EntityNotFoundException e) {
+            return true;
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "Condition not met within 10 seconds");
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
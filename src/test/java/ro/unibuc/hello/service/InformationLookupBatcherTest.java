@@ -0,0 +1,102 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.data.InformationRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class InformationLookupBatcherTest {
+
+    private final InformationRepository informationRepository = mock(InformationRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testDisabledByDefaultWindow() {
+        assertFalse(batcher(Duration.ZERO, 10).isEnabled());
+        assertTrue(batcher(Duration.ofMillis(5), 10).isEnabled());
+    }
+
+    @Test
+    void testConcurrentLookupsShareOneQuery() throws Exception {
+        // Arrange
+        InformationLookupBatcher batcher = batcher(Duration.ofSeconds(5), 3);
+        when(informationRepository.findByTitleIn(any())).thenAnswer(invocation -> {
+            Collection<String> titles = invocation.getArgument(0);
+            return titles.stream()
+                    .filter(title -> !title.equals("Unknown"))
+                    .map(title -> new InformationEntity(title, title + " description"))
+                    .toList();
+        });
+
+        // Act: the batch is full after three titles, long before the window ends
+        List<Future<InformationEntity>> results = new ArrayList<>();
+        for (String title : List.of("A", "B", "Unknown")) {
+            results.add(executor.submit(() -> batcher.findByTitle(title)));
+        }
+
+        // Assert
+        assertEquals("A description", results.get(0).get(2, TimeUnit.SECONDS).getDescription());
+        assertEquals("B description", results.get(1).get(2, TimeUnit.SECONDS).getDescription());
+        assertNull(results.get(2).get(2, TimeUnit.SECONDS));
+        verify(informationRepository, times(1)).findByTitleIn(any());
+        assertEquals(3, meterRegistry.get("info.lookup.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testWindowClosesPartialBatch() {
+        // Arrange
+        InformationLookupBatcher batcher = batcher(Duration.ofMillis(10), 100);
+        when(informationRepository.findByTitleIn(any())).thenReturn(List.of(new InformationEntity("A", "Description")));
+
+        // Act
+        InformationEntity entity = batcher.findByTitle("A");
+
+        // Assert
+        assertEquals("Description", entity.getDescription());
+    }
+
+    @Test
+    void testQueryFailureReachesEveryCaller() throws Exception {
+        // Arrange
+        InformationLookupBatcher batcher = batcher(Duration.ofSeconds(5), 2);
+        when(informationRepository.findByTitleIn(any())).thenThrow(new IllegalStateException("database down"));
+
+        // Act
+        Future<InformationEntity> first = executor.submit(() -> batcher.findByTitle("A"));
+        Future<InformationEntity> second = executor.submit(() -> batcher.findByTitle("B"));
+
+        // Assert
+        for (Future<InformationEntity> result : List.of(first, second)) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(2, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+        }
+    }
+
+    private InformationLookupBatcher batcher(Duration window, int maxBatchSize) {
+        InformationLookupBatcher batcher = new InformationLookupBatcher(window, maxBatchSize, meterRegistry);
+        ReflectionTestUtils.setField(batcher, "informationRepository", informationRepository);
+        return batcher;
+    }
+}
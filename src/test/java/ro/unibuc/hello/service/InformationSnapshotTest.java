@@ -0,0 +1,99 @@
+package ro.unibuc.hello.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.dto.Greeting;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InformationSnapshotTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InformationSnapshot snapshot = new InformationSnapshot(true, new ObjectMapper(), meterRegistry);
+
+    @Test
+    void testWritesBeforeTheFirstLoadAreLeftToIt() {
+        // Act
+        snapshot.put(new InformationEntity("1", "Hello", null));
+
+        // Assert
+        assertFalse(snapshot.isReady());
+        snapshot.rebuild(Stream.empty());
+        assertTrue(snapshot.isReady());
+        assertTrue(snapshot.greetings().isEmpty());
+    }
+
+    @Test
+    void testGreetingsAreInMongoIdOrder() {
+        // Arrange
+        String objectId = "65f1c0ffee0000000000000a";
+
+        // Act
+        snapshot.rebuild(Stream.of(
+                new InformationEntity(objectId, "Object id", null),
+                new InformationEntity("b", "Second", null),
+                new InformationEntity("a", "First", null)));
+
+        // Assert
+        assertEquals(List.of("a", "b", objectId), ids(snapshot.greetings()));
+        assertEquals(List.of("b"), ids(snapshot.greetingsAfter("a", 1)));
+        assertEquals(List.of("b", objectId), ids(snapshot.greetingsAfter("aa", 5)));
+        assertTrue(snapshot.greetingsAfter(objectId, 5).isEmpty());
+    }
+
+    @Test
+    void testReadersKeepTheVersionTheyRead() {
+        // Arrange
+        snapshot.rebuild(Stream.of(new InformationEntity("1", "Hello", "World")));
+        List<Greeting> before = snapshot.greetings();
+        byte[] jsonBefore = snapshot.greetingsJson();
+
+        // Act
+        snapshot.put(new InformationEntity("2", "Hi", null));
+        snapshot.remove("1");
+
+        // Assert
+        assertEquals(List.of("1"), ids(before));
+        assertEquals("[{\"id\":\"1\",\"content\":\"Hello\"}]", new String(jsonBefore));
+        assertEquals(List.of("2"), ids(snapshot.greetings()));
+        assertEquals("[{\"id\":\"2\",\"content\":\"Hi\"}]", new String(snapshot.greetingsJson()));
+        assertEquals(1, meterRegistry.get("info.snapshot.entries").gauge().value());
+    }
+
+    @Test
+    void testTitleLookupFollowsRenames() {
+        // Arrange
+        snapshot.rebuild(Stream.of(
+                new InformationEntity("2", "Shared", "second"),
+                new InformationEntity("1", "Shared", "first")));
+
+        // Act
+        snapshot.put(new InformationEntity("1", "Renamed", "first"));
+
+        // Assert
+        assertEquals("second", snapshot.findByTitle("Shared").orElseThrow().description());
+        assertEquals("1", snapshot.findByTitle("Renamed").orElseThrow().id());
+        assertEquals("Renamed", snapshot.findById("1").orElseThrow().title());
+    }
+
+    @Test
+    void testDisabledSnapshotStaysEmpty() {
+        // Arrange
+        InformationSnapshot disabled = new InformationSnapshot(false, new ObjectMapper(), new SimpleMeterRegistry());
+
+        // Act
+        disabled.rebuild(Stream.of(new InformationEntity("1", "Hello", null)));
+
+        // Assert
+        assertFalse(disabled.isReady());
+    }
+
+    private static List<String> ids(List<Greeting> greetings) {
+        return greetings.stream().map(Greeting::getId).toList();
+    }
+}
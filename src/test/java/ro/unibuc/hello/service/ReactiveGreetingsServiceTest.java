@@ -0,0 +1,90 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.data.InformationTitle;
+import ro.unibuc.hello.data.ReactiveInformationRepository;
+import ro.unibuc.hello.exception.EntityNotFoundException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReactiveGreetingsServiceTest {
+
+    @Mock
+    private ReactiveInformationRepository informationRepository;
+
+    @Spy
+    private IdGenerator idGenerator = new AtomicIdGenerator();
+
+    @InjectMocks
+    private ReactiveGreetingsService greetingsService = new ReactiveGreetingsService();
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void testHello() {
+        StepVerifier.create(greetingsService.hello("John"))
+                .expectNextMatches(greeting -> greeting.getContent().equals("Hello, John!"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testBuildGreetingFromInfo_ExistingEntity() {
+        // Arrange
+        when(informationRepository.findByTitle("Title")).thenReturn(Mono.just(new InformationEntity("Title", "Description")));
+
+        // Act & Assert
+        StepVerifier.create(greetingsService.buildGreetingFromInfo("Title"))
+                .expectNextMatches(greeting -> greeting.getContent().equals("Title : Description!"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testBuildGreetingFromInfo_NonExistingEntity() {
+        // Arrange
+        when(informationRepository.findByTitle("NonExistingTitle")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(greetingsService.buildGreetingFromInfo("NonExistingTitle"))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+    }
+
+    @Test
+    void testGetAllGreetings() {
+        // Arrange
+        when(informationRepository.findTitlesBy()).thenReturn(Flux.just(
+                new InformationTitle("1", "Greeting 1"),
+                new InformationTitle("2", "Greeting 2")));
+
+        // Act & Assert
+        StepVerifier.create(greetingsService.getAllGreetings())
+                .expectNextMatches(greeting -> greeting.getId().equals("1") && greeting.getContent().equals("Greeting 1"))
+                .expectNextMatches(greeting -> greeting.getId().equals("2") && greeting.getContent().equals("Greeting 2"))
+                .verifyComplete();
+    }
+
+    @Test
+    void testDeleteGreeting_NonExistingEntity() {
+        // Arrange
+        when(informationRepository.findById("NonExistingId")).thenReturn(Mono.empty());
+
+        // Act & Assert
+        StepVerifier.create(greetingsService.deleteGreeting("NonExistingId"))
+                .expectError(EntityNotFoundException.class)
+                .verify();
+        verify(informationRepository, never()).delete(any(InformationEntity.class));
+    }
+}
@@ -0,0 +1,231 @@
+package ro.unibuc.hello.service;
+
+import org.junit.jupiter.api.Test;
+import ro.unibuc.hello.data.InformationEntity;
+import ro.unibuc.hello.dto.SearchHit;
+import ro.unibuc.hello.dto.SearchResults;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchIndexTest {
+
+    private final SearchIndex searchIndex = new SearchIndex(true);
+
+    @Test
+    void testTitleMatchesRankAboveDescriptionMatches() {
+        // Arrange
+        searchIndex.put("1", "Overview", "Mongo is the storage engine of this example");
+        searchIndex.put("2", "Mongo", "A document database");
+        searchIndex.put("3", "Unrelated", "Nothing to see here");
+
+        // Act
+        SearchResults results = searchIndex.search("mongo", 0, 10);
+
+        // Assert
+        assertEquals(2, results.getTotal());
+        assertEquals(List.of("2", "1"), ids(results));
+        assertTrue(results.getHits().get(0).getScore() > results.getHits().get(1).getScore());
+    }
+
+    @Test
+    void testAllTermsMustMatch() {
+        // Arrange
+        searchIndex.put("1", "Data storage", null);
+        searchIndex.put("2", "Data engine", null);
+        searchIndex.put("3", "Storage engine", "for data");
+
+        // Act
+        SearchResults results = searchIndex.search("Data, ENGINE!", 0, 10);
+
+        // Assert
+        assertEquals(2, results.getTotal());
+        assertEquals(List.of("2", "3"), ids(results));
+        assertEquals(0, searchIndex.search("data missing", 0, 10).getTotal());
+    }
+
+    @Test
+    void testPrefixTerms() {
+        // Arrange
+        searchIndex.put("1", "Storage", null);
+        searchIndex.put("2", "Stored procedures", null);
+        searchIndex.put("3", "Stream", null);
+
+        // Act
+        SearchResults results = searchIndex.search("stor*", 0, 10);
+
+        // Assert
+        assertEquals(2, results.getTotal());
+        assertEquals(List.of("1", "2"), ids(results).stream().sorted().collect(Collectors.toList()));
+        assertEquals(0, searchIndex.search("stor", 0, 10).getTotal());
+    }
+
+    @Test
+    void testPagination() {
+        // Arrange
+        for (int i = 0; i < 25; i++) {
+            searchIndex.put(Integer.toString(i), "Greeting " + i, null);
+        }
+
+        // Act
+        SearchResults first = searchIndex.search("greeting", 0, 10);
+        SearchResults last = searchIndex.search("greeting", 20, 10);
+        SearchResults past = searchIndex.search("greeting", 30, 10);
+
+        // Assert
+        assertEquals(25, first.getTotal());
+        assertEquals(10, first.getHits().size());
+        // equal scores keep insertion order
+        assertEquals("0", first.getHits().get(0).getId());
+        assertEquals(List.of("20", "21", "22", "23", "24"), ids(last));
+        assertEquals(25, past.getTotal());
+        assertTrue(past.getHits().isEmpty());
+    }
+
+    @Test
+    void testUpdatesAndDeletes() {
+        // Arrange
+        searchIndex.put("1", "Old title", null);
+        searchIndex.put("2", "Other", null);
+
+        // Act
+        searchIndex.put("1", "New title", null);
+        searchIndex.remove("2");
+
+        // Assert
+        assertEquals(0, searchIndex.search("old", 0, 10).getTotal());
+        assertEquals(List.of("1"), ids(searchIndex.search("new", 0, 10)));
+        assertEquals(0, searchIndex.search("other", 0, 10).getTotal());
+        assertEquals(1, searchIndex.size());
+    }
+
+    @Test
+    void testCompactionKeepsLiveDocuments() {
+        // Arrange
+        int documents = 5000;
+        for (int i = 0; i < documents; i++) {
+            searchIndex.put(Integer.toString(i), "Greeting " + i, i % 2 == 0 ? "even" : "odd");
+        }
+
+        // Act
+        // rewriting every document twice leaves more dead postings than live documents, which triggers compaction
+        for (int round = 0; round < 2; round++) {
+            for (int i = 0; i < documents; i++) {
+                searchIndex.put(Integer.toString(i), "Greeting " + i, i % 2 == 0 ? "even" : "odd");
+            }
+        }
+
+        // Assert
+        assertEquals(documents, searchIndex.size());
+        assertEquals(documents / 2, searchIndex.search("even", 0, 10).getTotal());
+        assertEquals(List.of("4321"), ids(searchIndex.search("greeting 4321", 0, 10)));
+    }
+
+    @Test
+    void testRebuildReplacesContent() {
+        // Arrange
+        searchIndex.put("stale", "Stale entry", null);
+
+        // Act
+        searchIndex.rebuild(IntStream.range(0, 3)
+                .mapToObj(i -> new InformationEntity(Integer.toString(i), "Fresh " + i, null)));
+
+        // Assert
+        assertEquals(3, searchIndex.size());
+        assertEquals(0, searchIndex.search("stale", 0, 10).getTotal());
+        assertEquals(3, searchIndex.search("fresh", 0, 10).getTotal());
+    }
+
+    @Test
+    void testWritesDuringARebuildAreReplayed() {
+        // Arrange
+        searchIndex.put("1", "Before", null);
+
+        // Act
+        // the entities are read while writes keep arriving, as from a database cursor
+        searchIndex.rebuild(Stream.of(new InformationEntity("1", "Before", null), new InformationEntity("2", "Loaded", null))
+                .peek(entity -> {
+                    if (entity.getId().equals("2")) {
+                        searchIndex.put("3", "Written meanwhile", null);
+                        searchIndex.remove("1");
+                    }
+                }));
+
+        // Assert
+        assertEquals(List.of("3"), ids(searchIndex.search("written", 0, 10)));
+        assertEquals(List.of("2"), ids(searchIndex.search("loaded", 0, 10)));
+        assertEquals(0, searchIndex.search("before", 0, 10).getTotal());
+        assertTrue(searchIndex.search("loaded", 0, 10).isComplete());
+    }
+
+    @Test
+    void testPrefixKeepsTheMostFrequentExpansions() {
+        // Arrange
+        List<InformationEntity> entities = new ArrayList<>();
+        // "wa" sorts before every "word..." term, and is the only one left out
+        entities.add(new InformationEntity("rare", "wa", null));
+        for (int i = 0; i < SearchIndex.MAX_EXPANSIONS; i++) {
+            entities.add(new InformationEntity("common" + i, "w" + (char) ('b' + i % 24) + i, null));
+            entities.add(new InformationEntity("again" + i, "w" + (char) ('b' + i % 24) + i, null));
+        }
+
+        // Act
+        searchIndex.rebuild(entities.stream());
+        SearchResults results = searchIndex.search("w*", 0, 1000);
+
+        // Assert
+        assertFalse(results.isComplete());
+        assertEquals(2L * SearchIndex.MAX_EXPANSIONS, results.getTotal());
+        assertFalse(ids(results).contains("rare"));
+        assertTrue(searchIndex.search("wa*", 0, 10).isComplete());
+    }
+
+    @Test
+    void testResultsAreIncompleteUntilLoaded() {
+        // Arrange
+        searchIndex.put("1", "Overview", null);
+
+        // Act
+        SearchResults before = searchIndex.search("overview", 0, 10);
+        searchIndex.rebuild(Stream.of(new InformationEntity("1", "Overview", null)));
+        SearchResults after = searchIndex.search("overview", 0, 10);
+
+        // Assert
+        assertFalse(before.isComplete());
+        assertTrue(after.isComplete());
+    }
+
+    @Test
+    void testDisabledIndexIgnoresWrites() {
+        // Arrange
+        SearchIndex disabled = new SearchIndex(false);
+
+        // Act
+        disabled.put("1", "Overview", null);
+        disabled.rebuild(Stream.of(new InformationEntity("2", "Storage", null)));
+
+        // Assert
+        assertEquals(0, disabled.size());
+    }
+
+    @Test
+    void testBlankOrUnknownQueries() {
+        // Arrange
+        searchIndex.rebuild(Stream.of(new InformationEntity("1", "Overview", null)));
+
+        // Act & Assert
+        assertEquals(0, searchIndex.search("", 0, 10).getTotal());
+        assertEquals(0, searchIndex.search("  !? ", 0, 10).getTotal());
+        assertEquals(0, searchIndex.search(null, 0, 10).getTotal());
+        assertEquals(0, searchIndex.search("nowhere*", 0, 10).getTotal());
+    }
+
+    private static List<String> ids(SearchResults results) {
+        return results.getHits().stream().map(SearchHit::getId).collect(Collectors.toList());
+    }
+}
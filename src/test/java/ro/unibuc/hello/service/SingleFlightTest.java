@@ -0,0 +1,123 @@
+package ro.unibuc.hello.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 16;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test", meterRegistry);
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentCallersShareOneLoad() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        List<Future<String>> results = callConcurrently(() -> singleFlight.execute("key", key -> {
+            loads.incrementAndGet();
+            await(release);
+            return "value";
+        }));
+        waitForWaiters(CALLERS - 1);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS - 1, meterRegistry.get("test.coalesced").counter().count());
+        assertEquals(0, meterRegistry.get("test.in-flight").gauge().value());
+    }
+
+    @Test
+    void testConcurrentCallersShareTheException() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Act
+        List<Future<String>> results = callConcurrently(() -> singleFlight.execute("key", key -> {
+            await(release);
+            throw new IllegalStateException("database down");
+        }));
+        waitForWaiters(CALLERS - 1);
+        release.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    void testCompletedLoadIsNotReused() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+
+        // Act
+        singleFlight.execute("key", key -> "first " + loads.incrementAndGet());
+        String second = singleFlight.execute("key", key -> "second " + loads.incrementAndGet());
+
+        // Assert
+        assertEquals("second 2", second);
+        assertEquals(0, meterRegistry.get("test.coalesced").counter().count());
+    }
+
+    @Test
+    void testDifferentKeysLoadIndependently() {
+        // Act
+        String first = singleFlight.execute("a", key -> singleFlight.execute("b", inner -> key + inner));
+
+        // Assert
+        assertEquals("ab", first);
+    }
+
+    private List<Future<String>> callConcurrently(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        return results;
+    }
+
+    private void waitForWaiters(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("test.coalesced").counter().count() < waiters) {
+            assertTrue(System.nanoTime() < deadline, "Callers did not join the load in flight");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}